@@ -0,0 +1,255 @@
+package com.blog._blog.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Database cost of one {@code createPost} for an author with {@code followers} followers and a
+ * post with {@code images} images, replayed as the statements Hibernate sends on each side:
+ * <ul>
+ *   <li>{@code legacyCreatePost}, before the outbox and user-020: IDENTITY ids (the post insert
+ *   returns its id, nothing is batched), one insert per image, the author's followers loaded and
+ *   one notification inserted per follower inside the request;</li>
+ *   <li>{@code createPost}, now: ids from the pooled {@code posts_id_seq} (one {@code nextval}
+ *   per 50 posts), the post insert followed by its images as one JDBC batch that the driver rewrites
+ *   into a multi-row insert, the timeline fan-out as one {@code INSERT ... SELECT} and one outbox
+ *   row for the background notification worker.</li>
+ * </ul>
+ * The schema comes from the Flyway migrations, run against a throwaway Postgres container, so
+ * Docker has to be available.
+ *
+ * <p>Run with {@code mvn -Pjmh test-compile exec:java -Dexec.args="CreatePostBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreatePostBenchmark {
+
+    // Matches allocationSize on Post's sequence generator and the V4 migration.
+    private static final int ID_BLOCK = 50;
+
+    @Param({ "10", "1000" })
+    public int followers;
+
+    @Param({ "3" })
+    public int images;
+
+    private PostgreSQLContainer<?> postgres;
+    private Connection connection;
+    private int authorId;
+    private long nextPostId;
+    private long lastPostId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        // reWriteBatchedInserts as set in application.properties; it has no effect on the legacy
+        // side, which never batches.
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+                .withUrlParam("reWriteBatchedInserts", "true");
+        postgres.start();
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .load()
+                .migrate();
+
+        connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(),
+                postgres.getPassword());
+        try (PreparedStatement author = connection.prepareStatement(
+                "INSERT INTO _user (firstname, lastname, email, role, banned, subscribed, created_at) "
+                        + "VALUES ('Bench', 'Author', 'author@bench.local', 'USER', false, false, now()) RETURNING id")) {
+            try (ResultSet rs = author.executeQuery()) {
+                rs.next();
+                authorId = rs.getInt(1);
+            }
+        }
+        try (PreparedStatement seed = connection.prepareStatement(
+                "INSERT INTO _user (firstname, lastname, email, role, banned, subscribed, created_at) "
+                        + "SELECT 'Follower', g::text, 'follower' || g || '@bench.local', 'USER', false, false, now() "
+                        + "FROM generate_series(1, ?) g")) {
+            seed.setInt(1, followers);
+            seed.executeUpdate();
+        }
+        try (PreparedStatement follow = connection.prepareStatement(
+                "INSERT INTO user_following (user_id, following_id) SELECT id, ? FROM _user WHERE id <> ?")) {
+            follow.setInt(1, authorId);
+            follow.setInt(2, authorId);
+            follow.executeUpdate();
+        }
+        connection.setAutoCommit(false);
+    }
+
+    // Keeps every iteration on tables of the same size.
+    @TearDown(Level.Iteration)
+    public void truncate() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE timeline_entries, outbox_events, notifications, post_images, posts CASCADE");
+        }
+        connection.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public long legacyCreatePost() throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        long postId;
+        try (PreparedStatement post = connection.prepareStatement(
+                "INSERT INTO posts (title, content, category, read_time, author_id, hidden, created_at, "
+                        + "like_count, comment_count) VALUES (?, ?, ?, ?, ?, false, ?, 0, 0)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            bindPost(post, 1, now);
+            post.executeUpdate();
+            try (ResultSet keys = post.getGeneratedKeys()) {
+                keys.next();
+                postId = keys.getLong(1);
+            }
+        }
+        for (int i = 0; i < images; i++) {
+            try (PreparedStatement image = connection.prepareStatement(
+                    "INSERT INTO post_images (post_id, image_url) VALUES (?, ?)")) {
+                image.setLong(1, postId);
+                image.setString(2, imageUrl(postId, i));
+                image.executeUpdate();
+            }
+        }
+
+        List<Integer> followerIds = new ArrayList<>();
+        try (PreparedStatement load = connection.prepareStatement(
+                "SELECT u.* FROM user_following uf JOIN _user u ON u.id = uf.user_id WHERE uf.following_id = ?")) {
+            load.setInt(1, authorId);
+            try (ResultSet rs = load.executeQuery()) {
+                while (rs.next()) {
+                    followerIds.add(rs.getInt("id"));
+                }
+            }
+        }
+        for (Integer followerId : followerIds) {
+            try (PreparedStatement notification = connection.prepareStatement(
+                    "INSERT INTO notifications (recipient_id, actor_id, type, entity_id, is_read, created_at) "
+                            + "VALUES (?, ?, 'NEW_POST', ?, false, ?)",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                notification.setInt(1, followerId);
+                notification.setInt(2, authorId);
+                notification.setLong(3, postId);
+                notification.setTimestamp(4, Timestamp.valueOf(now));
+                notification.executeUpdate();
+            }
+        }
+        connection.commit();
+        return postId;
+    }
+
+    @Benchmark
+    public long createPost() throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        long postId = nextPostId();
+
+        // Flushed together before the timeline's native statements run.
+        try (PreparedStatement post = connection.prepareStatement(
+                "INSERT INTO posts (id, title, content, category, read_time, author_id, hidden, created_at, "
+                        + "like_count, comment_count) VALUES (?, ?, ?, ?, ?, ?, false, ?, 0, 0)")) {
+            post.setLong(1, postId);
+            bindPost(post, 2, now);
+            post.executeUpdate();
+        }
+        try (PreparedStatement image = connection.prepareStatement(
+                "INSERT INTO post_images (post_id, image_url) VALUES (?, ?)")) {
+            for (int i = 0; i < images; i++) {
+                image.setLong(1, postId);
+                image.setString(2, imageUrl(postId, i));
+                image.addBatch();
+            }
+            image.executeBatch();
+        }
+
+        try (PreparedStatement own = connection.prepareStatement(
+                "INSERT INTO timeline_entries (user_id, post_id, author_id, created_at) VALUES (?, ?, ?, ?) "
+                        + "ON CONFLICT DO NOTHING")) {
+            own.setInt(1, authorId);
+            own.setLong(2, postId);
+            own.setInt(3, authorId);
+            own.setTimestamp(4, Timestamp.valueOf(now));
+            own.executeUpdate();
+        }
+        try (PreparedStatement fanOut = connection.prepareStatement(
+                "INSERT INTO timeline_entries (user_id, post_id, author_id, created_at) "
+                        + "SELECT uf.user_id, ?, ?, ? FROM user_following uf WHERE uf.following_id = ? "
+                        + "ON CONFLICT DO NOTHING")) {
+            fanOut.setLong(1, postId);
+            fanOut.setInt(2, authorId);
+            fanOut.setTimestamp(3, Timestamp.valueOf(now));
+            fanOut.setInt(4, authorId);
+            fanOut.executeUpdate();
+        }
+
+        try (PreparedStatement outbox = connection.prepareStatement(
+                "INSERT INTO outbox_events (type, aggregate_id, actor_id, progress, attempts, created_at) "
+                        + "VALUES ('POST_PUBLISHED', ?, ?, 0, 0, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            outbox.setLong(1, postId);
+            outbox.setInt(2, authorId);
+            outbox.setTimestamp(3, Timestamp.valueOf(now));
+            outbox.executeUpdate();
+        }
+        connection.commit();
+        return postId;
+    }
+
+    // Hibernate's pooled optimizer: each nextval is the top of a block of ID_BLOCK ids.
+    private long nextPostId() throws SQLException {
+        if (nextPostId == 0 || nextPostId > lastPostId) {
+            try (Statement statement = connection.createStatement();
+                    ResultSet rs = statement.executeQuery("SELECT nextval('posts_id_seq')")) {
+                rs.next();
+                lastPostId = rs.getLong(1);
+                nextPostId = lastPostId - ID_BLOCK + 1;
+            }
+        }
+        return nextPostId++;
+    }
+
+    private void bindPost(PreparedStatement post, int from, LocalDateTime now) throws SQLException {
+        post.setString(from, "Benchmark post");
+        post.setString(from + 1, "Some content for the benchmark post.");
+        post.setString(from + 2, "General");
+        post.setString(from + 3, "2 min");
+        post.setInt(from + 4, authorId);
+        post.setTimestamp(from + 5, Timestamp.valueOf(now));
+    }
+
+    private static String imageUrl(long postId, int index) {
+        return "https://cdn.example.com/posts/" + postId + "/" + index + ".jpg";
+    }
+}
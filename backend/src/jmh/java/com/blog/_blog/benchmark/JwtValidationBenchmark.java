@@ -0,0 +1,144 @@
+package com.blog._blog.benchmark;
+
+import com.blog._blog.security.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What the JWT filter pays per authenticated request:
+ * <ul>
+ *   <li>{@code legacyThreeParses}: the pre-user-007 path, extractUsername then isTokenValid, i.e.
+ *   three full parse-and-verify passes, each with a freshly built parser;</li>
+ *   <li>{@code validateUncached}: one {@link JwtService#validate} with the verified-token cache
+ *   disabled, i.e. a single parse with the shared parser;</li>
+ *   <li>{@code validateCacheHit}: {@link JwtService#validate} for tokens already in the cache.</li>
+ * </ul>
+ * Tokens rotate over {@code users} distinct subjects so the cache sees a realistic key set.
+ *
+ * <p>Run with {@code mvn -Pjmh test-compile exec:java -Dexec.args="JwtValidationBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtValidationBenchmark {
+
+    @Param({ "1000" })
+    public int users;
+
+    private JwtService uncached;
+    private JwtService cached;
+    private LegacyJwtService legacy;
+    private String[] tokens;
+    private UserDetails[] principals;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String secret = Encoders.BASE64.encode(Keys.secretKeyFor(SignatureAlgorithm.HS256).getEncoded());
+        uncached = jwtService(secret, 0);
+        cached = jwtService(secret, users * 2);
+        legacy = new LegacyJwtService(uncached);
+
+        tokens = new String[users];
+        principals = new UserDetails[users];
+        for (int i = 0; i < users; i++) {
+            principals[i] = User.withUsername("user" + i + "@example.com").password("x").roles("USER").build();
+            tokens[i] = uncached.generateToken(principals[i]);
+            cached.validate(tokens[i]);
+        }
+    }
+
+    @Benchmark
+    public boolean legacyThreeParses() {
+        int i = nextIndex();
+        String username = legacy.extractUsername(tokens[i]);
+        return username != null && legacy.isTokenValid(tokens[i], principals[i]);
+    }
+
+    @Benchmark
+    public boolean validateUncached() {
+        int i = nextIndex();
+        return uncached.isTokenValid(uncached.validate(tokens[i]), principals[i]);
+    }
+
+    @Benchmark
+    public boolean validateCacheHit() {
+        int i = nextIndex();
+        return cached.isTokenValid(cached.validate(tokens[i]), principals[i]);
+    }
+
+    // Racy across threads on purpose; any spread over the token set will do.
+    private int nextIndex() {
+        int i = next + 1;
+        if (i >= users) {
+            i = 0;
+        }
+        next = i;
+        return i;
+    }
+
+    private static JwtService jwtService(String secret, int cacheSize) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "secretKey", secret);
+        ReflectionTestUtils.setField(service, "expirationMs", TimeUnit.HOURS.toMillis(1));
+        ReflectionTestUtils.setField(service, "verifiedCacheMaxSize", cacheSize);
+        ReflectionTestUtils.setField(service, "verifiedCacheTtlMs", TimeUnit.MINUTES.toMillis(5));
+        service.init();
+        return service;
+    }
+
+    /** JwtService token checks as they were before user-007, kept here as the baseline. */
+    static final class LegacyJwtService {
+        private final Key signingKey;
+
+        LegacyJwtService(JwtService current) {
+            this.signingKey = (Key) ReflectionTestUtils.getField(current, "signingKey");
+        }
+
+        String extractUsername(String token) {
+            return extractAllClaims(token).getSubject();
+        }
+
+        boolean isTokenValid(String token, UserDetails userDetails) {
+            final String username = extractUsername(token);
+            return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+        }
+
+        private boolean isTokenExpired(String token) {
+            return extractAllClaims(token).getExpiration().before(new Date());
+        }
+
+        private Claims extractAllClaims(String token) {
+            return Jwts.parserBuilder()
+                    .setSigningKey(signingKey)
+                    .build()
+                    .parseClaimsJws(token)
+                    .getBody();
+        }
+    }
+}
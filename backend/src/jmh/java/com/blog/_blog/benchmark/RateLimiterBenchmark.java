@@ -0,0 +1,202 @@
+package com.blog._blog.benchmark;
+
+import com.blog._blog.config.RateLimiterInterceptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cost of one rate-limited write request with {@code clients} distinct clients already tracked:
+ * the pre-user-008 fixed-window limiter (a {@code removeIf} over every tracked key, a split path
+ * and a concatenated key per request) against the current token-bucket {@link RateLimiterInterceptor}.
+ * The {@code *Contended} variants run the same request mix on 8 threads.
+ *
+ * <p>Run with {@code mvn -Pjmh test-compile exec:java -Dexec.args="RateLimiterBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    @Param({ "100000" })
+    public int clients;
+
+    private RateLimiterInterceptor tokenBuckets;
+    private LegacyRateLimiter legacy;
+    private String[] clientIps;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        tokenBuckets = new RateLimiterInterceptor();
+        legacy = new LegacyRateLimiter();
+        clientIps = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            clientIps[i] = "10." + (i >>> 16 & 0xff) + "." + (i >>> 8 & 0xff) + "." + (i & 0xff);
+        }
+        // Every client has a live bucket/window before measuring, as on a busy node.
+        RequestState request = new RequestState();
+        request.setUp();
+        for (String ip : clientIps) {
+            request.request.setRemoteAddr(ip);
+            tokenBuckets.preHandle(request.request, request.response, null);
+            legacy.preHandle(request.request, request.response, null);
+        }
+    }
+
+    /**
+     * One reusable request/response pair per thread, pointed at the next client for each call.
+     * Clients can come round faster than their limit allows, so both limiters also take the 429
+     * path; the response is reset after one so its body does not grow without bound.
+     */
+    @State(Scope.Thread)
+    public static class RequestState {
+        MockHttpServletRequest request;
+        MockHttpServletResponse response;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            request = new MockHttpServletRequest("POST", "/api/posts/42/like");
+            response = new MockHttpServletResponse();
+        }
+
+        MockHttpServletRequest forNextClient(String[] clientIps) {
+            if (response.getStatus() != 200) {
+                response.reset();
+            }
+            next = next + 1 < clientIps.length ? next + 1 : 0;
+            request.setRemoteAddr(clientIps[next]);
+            return request;
+        }
+    }
+
+    @Benchmark
+    public boolean legacyFixedWindow(RequestState state) throws Exception {
+        return legacy.preHandle(state.forNextClient(clientIps), state.response, null);
+    }
+
+    @Benchmark
+    public boolean tokenBucket(RequestState state) throws Exception {
+        return tokenBuckets.preHandle(state.forNextClient(clientIps), state.response, null);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean legacyFixedWindowContended(RequestState state) throws Exception {
+        return legacy.preHandle(state.forNextClient(clientIps), state.response, null);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean tokenBucketContended(RequestState state) throws Exception {
+        return tokenBuckets.preHandle(state.forNextClient(clientIps), state.response, null);
+    }
+
+    /** RateLimiterInterceptor as it was before user-008, kept here as the baseline. */
+    static final class LegacyRateLimiter implements HandlerInterceptor {
+
+        private final Map<String, UserRequestInfo> requestCounts = new ConcurrentHashMap<>();
+        private static final int MAX_WRITE_REQUESTS_PER_MINUTE = 180;
+        private static final int MAX_AUTH_MUTATION_REQUESTS_PER_MINUTE = 45;
+
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+                throws Exception {
+            String method = request.getMethod();
+            if ("OPTIONS".equalsIgnoreCase(method)
+                    || "GET".equalsIgnoreCase(method)
+                    || "HEAD".equalsIgnoreCase(method)) {
+                return true;
+            }
+
+            if ("/api/auth/logout".equals(request.getRequestURI())) {
+                return true;
+            }
+
+            String clientIp = getClientIp(request);
+            String requestPath = request.getRequestURI();
+            int limit = resolveLimit(method, requestPath);
+            long currentTime = System.currentTimeMillis();
+
+            requestCounts.entrySet()
+                    .removeIf(entry -> currentTime - entry.getValue().lastResetTime > TimeUnit.MINUTES.toMillis(1));
+
+            String bucketKey = clientIp + "|" + method.toUpperCase() + "|" + normalizePath(requestPath);
+            UserRequestInfo info = requestCounts.computeIfAbsent(bucketKey, k -> new UserRequestInfo(currentTime));
+
+            if (info.count.incrementAndGet() > limit) {
+                response.setStatus(429); // Too Many Requests
+                response.setContentType("application/json");
+                response.setHeader("Retry-After", "5");
+                response.getWriter().write("{\"message\":\"Too many requests. Please wait a few seconds and try again.\"}");
+                return false;
+            }
+
+            return true;
+        }
+
+        private int resolveLimit(String method, String path) {
+            if ("POST".equalsIgnoreCase(method)
+                    && ("/api/auth/authenticate".equals(path) || "/api/auth/register".equals(path))) {
+                return MAX_AUTH_MUTATION_REQUESTS_PER_MINUTE;
+            }
+            return MAX_WRITE_REQUESTS_PER_MINUTE;
+        }
+
+        private String normalizePath(String path) {
+            if (path == null || path.isEmpty()) {
+                return "/";
+            }
+            String[] parts = path.split("/");
+            StringBuilder normalized = new StringBuilder();
+            int count = 0;
+            for (String part : parts) {
+                if (part == null || part.isEmpty()) continue;
+                normalized.append('/').append(part);
+                count++;
+                if (count >= 3) break;
+            }
+            return normalized.length() == 0 ? "/" : normalized.toString();
+        }
+
+        private String getClientIp(HttpServletRequest request) {
+            String xfHeader = request.getHeader("X-Forwarded-For");
+            if (xfHeader == null) {
+                return request.getRemoteAddr();
+            }
+            return xfHeader.split(",")[0];
+        }
+
+        private static class UserRequestInfo {
+            final AtomicInteger count = new AtomicInteger(0);
+            final long lastResetTime;
+
+            UserRequestInfo(long lastResetTime) {
+                this.lastResetTime = lastResetTime;
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.blog._blog.config;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adaptive load shedding for the expensive read paths. Each endpoint group has its own AIMD
+ * concurrency limit: it grows by one per limit's worth of requests served within the target
+ * latency and is cut multiplicatively (at most once per target interval) when a request runs
+ * slower. Requests beyond the current limit get an immediate 503 instead of queueing on the
+ * connection pool, which keeps tail latency bounded when the database falls behind.
+ *
+ * <p>Runs before Spring Security so shed requests cost neither a token check nor a user lookup.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    public enum Group {
+        FEED(300),
+        SEARCH(300),
+        DASHBOARD(1000),
+        UPLOADS(2000);
+
+        private final long defaultTargetLatencyMs;
+
+        Group(long defaultTargetLatencyMs) {
+            this.defaultTargetLatencyMs = defaultTargetLatencyMs;
+        }
+    }
+
+    private final boolean enabled;
+    private final Map<Group, Limiter> limiters = new EnumMap<>(Group.class);
+
+    public ConcurrencyLimitFilter(Environment env) {
+        String prefix = "app.concurrency-limit.";
+        this.enabled = env.getProperty(prefix + "enabled", Boolean.class, true);
+        int initialLimit = env.getProperty(prefix + "initial-limit", Integer.class, 20);
+        int minLimit = env.getProperty(prefix + "min-limit", Integer.class, 4);
+        int maxLimit = env.getProperty(prefix + "max-limit", Integer.class, 200);
+        for (Group group : Group.values()) {
+            long targetMs = env.getProperty(
+                    prefix + group.name().toLowerCase(Locale.ROOT) + ".target-latency-ms",
+                    Long.class, group.defaultTargetLatencyMs);
+            limiters.put(group, new Limiter(initialLimit, minLimit, maxLimit, targetMs));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        Group group = enabled ? resolveGroup(request.getMethod(), request.getRequestURI()) : null;
+        if (group == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Limiter limiter = limiters.get(group);
+        int inflight = limiter.tryAcquire();
+        if (inflight < 0) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setContentType("application/json");
+            response.setHeader("Retry-After", "1");
+            response.getWriter().write("{\"message\":\"Server is busy. Please try again in a moment.\"}");
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limiter.release(System.nanoTime() - start, inflight);
+        }
+    }
+
+    // Current limit, in-flight and rejected counts per group, for the admin dashboard.
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> snapshot = new LinkedHashMap<>();
+        limiters.forEach((group, limiter) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("limit", limiter.getLimit());
+            stats.put("inflight", limiter.inflight.get());
+            stats.put("rejected", limiter.rejected.sum());
+            stats.put("targetLatencyMs", TimeUnit.NANOSECONDS.toMillis(limiter.targetNanos));
+            snapshot.put(group.name().toLowerCase(Locale.ROOT), stats);
+        });
+        return snapshot;
+    }
+
+    private Group resolveGroup(String method, String path) {
+        if (path == null) {
+            return null;
+        }
+        boolean read = "GET".equalsIgnoreCase(method) || "HEAD".equalsIgnoreCase(method);
+        if (path.startsWith("/uploads/") || ("POST".equalsIgnoreCase(method) && path.equals("/api/posts/upload"))) {
+            return Group.UPLOADS;
+        }
+        if (!read) {
+            return null;
+        }
+        if (path.equals("/api/posts") || path.startsWith("/api/posts/")) {
+            return Group.FEED;
+        }
+        if (path.equals("/api/search")) {
+            return Group.SEARCH;
+        }
+        if (path.startsWith("/api/dashboard/")) {
+            return Group.DASHBOARD;
+        }
+        return null;
+    }
+
+    static final class Limiter {
+        private static final double BACKOFF_RATIO = 0.9;
+
+        private final int minLimit;
+        private final int maxLimit;
+        private final long targetNanos;
+        private final AtomicInteger inflight = new AtomicInteger();
+        private final LongAdder rejected = new LongAdder();
+
+        private volatile double limit;
+        private long lastDecreaseNanos = System.nanoTime();
+
+        Limiter(int initialLimit, int minLimit, int maxLimit, long targetLatencyMs) {
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.targetNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMs);
+            this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        }
+
+        // Returns the in-flight count including this request, or -1 when it must be shed.
+        int tryAcquire() {
+            while (true) {
+                int current = inflight.get();
+                if (current >= (int) limit) {
+                    rejected.increment();
+                    return -1;
+                }
+                if (inflight.compareAndSet(current, current + 1)) {
+                    return current + 1;
+                }
+            }
+        }
+
+        void release(long latencyNanos, int inflightAtStart) {
+            inflight.decrementAndGet();
+            onSample(latencyNanos, inflightAtStart);
+        }
+
+        private synchronized void onSample(long latencyNanos, int inflightAtStart) {
+            long now = System.nanoTime();
+            if (latencyNanos > targetNanos) {
+                // One slow batch should cost one cut, not one per request in the batch.
+                if (now - lastDecreaseNanos >= targetNanos) {
+                    limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                    lastDecreaseNanos = now;
+                }
+            } else if (inflightAtStart * 2 >= limit) {
+                // Only grow while the limit is actually being used.
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+        }
+
+        int getLimit() {
+            return (int) limit;
+        }
+    }
+}
@@ -1,21 +1,29 @@
 package com.blog._blog.config;
 
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Per (client, method, path prefix) token bucket for write requests. Each bucket refills
+ * continuously at its per-minute limit and is updated with a single CAS, so the hot path never
+ * locks or walks the map; idle buckets are swept by a background job instead.
+ */
 @Component
 public class RateLimiterInterceptor implements HandlerInterceptor {
 
-    private final Map<String, UserRequestInfo> requestCounts = new ConcurrentHashMap<>();
     private static final int MAX_WRITE_REQUESTS_PER_MINUTE = 180;
     private static final int MAX_AUTH_MUTATION_REQUESTS_PER_MINUTE = 45;
+    private static final long WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final ConcurrentHashMap<BucketKey, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final long epoch = System.currentTimeMillis();
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
@@ -27,25 +35,23 @@ public class RateLimiterInterceptor implements HandlerInterceptor {
             return true;
         }
 
-        if ("/api/auth/logout".equals(request.getRequestURI())) {
+        String requestPath = request.getRequestURI();
+        if ("/api/auth/logout".equals(requestPath)) {
             return true;
         }
 
-        String clientIp = getClientIp(request);
-        String requestPath = request.getRequestURI();
         int limit = resolveLimit(method, requestPath);
-        long currentTime = System.currentTimeMillis();
-
-        requestCounts.entrySet()
-                .removeIf(entry -> currentTime - entry.getValue().lastResetTime > TimeUnit.MINUTES.toMillis(1));
-
-        String bucketKey = clientIp + "|" + method.toUpperCase() + "|" + normalizePath(requestPath);
-        UserRequestInfo info = requestCounts.computeIfAbsent(bucketKey, k -> new UserRequestInfo(currentTime));
+        BucketKey key = new BucketKey(getClientIp(request), method, requestPath);
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(limit, now()));
+        }
 
-        if (info.count.incrementAndGet() > limit) {
+        long waitMillis = bucket.tryAcquire(now());
+        if (waitMillis > 0) {
             response.setStatus(429); // Too Many Requests
             response.setContentType("application/json");
-            response.setHeader("Retry-After", "5");
+            response.setHeader("Retry-After", String.valueOf(Math.max(1, TimeUnit.MILLISECONDS.toSeconds(waitMillis))));
             response.getWriter().write("{\"message\":\"Too many requests. Please wait a few seconds and try again.\"}");
             return false;
         }
@@ -53,6 +59,17 @@ public class RateLimiterInterceptor implements HandlerInterceptor {
         return true;
     }
 
+    // A bucket untouched for a full window has refilled completely, so dropping it changes nothing.
+    @Scheduled(fixedDelay = 30_000)
+    public void evictIdleBuckets() {
+        long cutoff = now() - WINDOW_MILLIS;
+        buckets.values().removeIf(bucket -> bucket.lastRefill() < cutoff);
+    }
+
+    private long now() {
+        return System.currentTimeMillis() - epoch;
+    }
+
     private int resolveLimit(String method, String path) {
         if ("POST".equalsIgnoreCase(method)
                 && ("/api/auth/authenticate".equals(path) || "/api/auth/register".equals(path))) {
@@ -61,37 +78,125 @@ public class RateLimiterInterceptor implements HandlerInterceptor {
         return MAX_WRITE_REQUESTS_PER_MINUTE;
     }
 
-    private String normalizePath(String path) {
-        if (path == null || path.isEmpty()) {
-            return "/";
-        }
-        // Keep only first 3 segments to avoid too many small buckets.
-        String[] parts = path.split("/");
-        StringBuilder normalized = new StringBuilder();
-        int count = 0;
-        for (String part : parts) {
-            if (part == null || part.isEmpty()) continue;
-            normalized.append('/').append(part);
-            count++;
-            if (count >= 3) break;
-        }
-        return normalized.length() == 0 ? "/" : normalized.toString();
-    }
-
     private String getClientIp(HttpServletRequest request) {
         String xfHeader = request.getHeader("X-Forwarded-For");
         if (xfHeader == null) {
             return request.getRemoteAddr();
         }
-        return xfHeader.split(",")[0];
+        int comma = xfHeader.indexOf(',');
+        return comma < 0 ? xfHeader : xfHeader.substring(0, comma);
     }
 
-    private static class UserRequestInfo {
-        final AtomicInteger count = new AtomicInteger(0);
-        final long lastResetTime;
+    /**
+     * Token bucket whose whole state (last refill time and milli-tokens) lives in one long:
+     * the upper 40 bits hold milliseconds since the limiter started, the lower 24 bits the tokens.
+     */
+    static final class TokenBucket {
+        private static final int TOKEN_BITS = 24;
+        private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+        private static final long MILLI = 1000;
+
+        private final long capacity; // in milli-tokens
+        private final long refillPerMinute; // in tokens
+        private final AtomicLong state;
+
+        TokenBucket(int limitPerMinute, long now) {
+            this.capacity = limitPerMinute * MILLI;
+            this.refillPerMinute = limitPerMinute;
+            this.state = new AtomicLong((now << TOKEN_BITS) | capacity);
+        }
+
+        // Returns 0 when a token was taken, otherwise roughly how long until one is available.
+        long tryAcquire(long now) {
+            while (true) {
+                long current = state.get();
+                long last = current >>> TOKEN_BITS;
+                long elapsed = Math.max(0, now - last);
+                // milli-tokens per ms = refillPerMinute * 1000 / 60000
+                long available = Math.min(capacity, (current & TOKEN_MASK) + elapsed * refillPerMinute / 60);
+                if (available < MILLI) {
+                    return Math.max(1, (MILLI - available) * 60 / refillPerMinute);
+                }
+                long next = (Math.max(now, last) << TOKEN_BITS) | (available - MILLI);
+                if (state.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        long lastRefill() {
+            return state.get() >>> TOKEN_BITS;
+        }
+    }
+
+    /**
+     * Bucket identity: client, upper-cased method and the first three path segments. The path
+     * prefix is compared in place against the request URI, so lookups need no split or
+     * concatenated key string.
+     */
+    static final class BucketKey {
+        private final String client;
+        private final String method;
+        private final String path;
+        private final int pathEnd;
+        private final int hash;
+
+        BucketKey(String client, String method, String path) {
+            this.client = client;
+            this.method = method;
+            this.path = path == null ? "" : path;
+            this.pathEnd = prefixEnd(this.path);
+            int h = client.hashCode();
+            for (int i = 0; i < method.length(); i++) {
+                h = 31 * h + Character.toUpperCase(method.charAt(i));
+            }
+            for (int i = 0; i < pathEnd; i++) {
+                h = 31 * h + this.path.charAt(i);
+            }
+            this.hash = h;
+        }
+
+        // End index of the first three non-empty segments of the path.
+        private static int prefixEnd(String path) {
+            int segments = 0;
+            int i = 0;
+            int end = 0;
+            int length = path.length();
+            while (i < length && segments < 3) {
+                while (i < length && path.charAt(i) == '/') {
+                    i++;
+                }
+                if (i == length) {
+                    break;
+                }
+                while (i < length && path.charAt(i) != '/') {
+                    i++;
+                }
+                end = i;
+                segments++;
+            }
+            return end;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
 
-        UserRequestInfo(long lastResetTime) {
-            this.lastResetTime = lastResetTime;
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof BucketKey)) {
+                return false;
+            }
+            BucketKey other = (BucketKey) o;
+            return hash == other.hash
+                    && pathEnd == other.pathEnd
+                    && client.equals(other.client)
+                    && method.equalsIgnoreCase(other.method)
+                    && path.regionMatches(0, other.path, 0, pathEnd);
         }
     }
 }
@@ -2,9 +2,11 @@ package com.blog._blog.config;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import javax.persistence.EntityManagerFactory;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
@@ -15,9 +17,11 @@ public class WebConfig implements WebMvcConfigurer {
     private String uploadDir;
 
     private final RateLimiterInterceptor rateLimiterInterceptor;
+    private final EntityManagerFactory entityManagerFactory;
 
-    public WebConfig(RateLimiterInterceptor rateLimiterInterceptor) {
+    public WebConfig(RateLimiterInterceptor rateLimiterInterceptor, EntityManagerFactory entityManagerFactory) {
         this.rateLimiterInterceptor = rateLimiterInterceptor;
+        this.entityManagerFactory = entityManagerFactory;
     }
 
     @Override
@@ -26,6 +30,14 @@ public class WebConfig implements WebMvcConfigurer {
                 .addPathPatterns("/api/auth/**")
                 .addPathPatterns("/api/posts/**")
                 .addPathPatterns("/api/reports/**");
+
+        // Open-in-view is registered here instead of by spring.jpa.open-in-view so that it can
+        // skip the notification stream: an open EntityManager would hold its JDBC connection for
+        // as long as the SSE connection lives.
+        OpenEntityManagerInViewInterceptor openEntityManagerInView = new OpenEntityManagerInViewInterceptor();
+        openEntityManagerInView.setEntityManagerFactory(entityManagerFactory);
+        registry.addWebRequestInterceptor(openEntityManagerInView)
+                .excludePathPatterns("/api/notifications/stream");
     }
 
     @Override
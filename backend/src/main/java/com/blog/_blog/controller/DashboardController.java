@@ -1,5 +1,6 @@
 package com.blog._blog.controller;
 
+import com.blog._blog.config.ConcurrencyLimitFilter;
 import com.blog._blog.dto.DashboardStatsDTO;
 import com.blog._blog.service.DashboardService;
 import lombok.RequiredArgsConstructor;
@@ -7,19 +8,35 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/dashboard")
 @RequiredArgsConstructor
 public class DashboardController {
 
     private final DashboardService dashboardService;
+    private final ConcurrencyLimitFilter concurrencyLimitFilter;
 
     @GetMapping("/stats")
     @PreAuthorize("hasAuthority('ADMIN')")
     public ResponseEntity<DashboardStatsDTO> getStats(Authentication authentication) {
         return ResponseEntity.ok(dashboardService.getDashboardStats(authentication.getName()));
     }
+
+    @PostMapping("/report-counts/rebuild")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Map<String, Integer>> rebuildReportCounts(Authentication authentication) {
+        return ResponseEntity.ok(Map.of("targets", dashboardService.rebuildReportCounts(authentication.getName())));
+    }
+
+    @GetMapping("/concurrency-limits")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Map<String, Map<String, Object>>> getConcurrencyLimits() {
+        return ResponseEntity.ok(concurrencyLimitFilter.snapshot());
+    }
 }
@@ -2,12 +2,16 @@ package com.blog._blog.controller;
 
 import com.blog._blog.dto.NotificationDTO;
 import com.blog._blog.service.NotificationService;
+import com.blog._blog.util.CursorResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/notifications")
@@ -17,8 +21,27 @@ public class NotificationController {
     private final NotificationService notificationService;
 
     @GetMapping
-    public ResponseEntity<List<NotificationDTO>> getNotifications(Authentication authentication) {
-        return ResponseEntity.ok(notificationService.getUserNotifications(authentication.getName()));
+    public ResponseEntity<List<NotificationDTO>> getNotifications(
+            Authentication authentication,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) Integer size) {
+        if (before == null && size == null) {
+            return ResponseEntity.ok(notificationService.getUserNotifications(authentication.getName()));
+        }
+        return CursorResponse.ok(notificationService.getUserNotifications(
+                authentication.getName(), before, size != null ? size : 20));
+    }
+
+    @GetMapping("/unread-count")
+    public ResponseEntity<Map<String, Long>> getUnreadCount(Authentication authentication) {
+        return ResponseEntity.ok(Map.of("count", notificationService.getUnreadCount(authentication.getName())));
+    }
+
+    // Live push over Server-Sent Events; EventSource sends Last-Event-ID itself when it reconnects.
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(Authentication authentication,
+            @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        return notificationService.subscribe(authentication.getName(), lastEventId);
     }
 
     @PutMapping("/{id}/read")
@@ -2,8 +2,10 @@ package com.blog._blog.controller;
 
 import com.blog._blog.dto.*;
 import com.blog._blog.service.PostService;
+import com.blog._blog.util.CursorResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import javax.validation.Valid;
@@ -16,7 +18,7 @@ public class PostController {
 
     private final PostService postService;
     private final com.blog._blog.service.FileStorageService fileStorageService;
-    private final com.blog._blog.repository.UserRepository userRepository;
+    private final com.blog._blog.security.CurrentUserResolver currentUserResolver;
 
     @PostMapping("/upload")
     public ResponseEntity<List<String>> uploadFiles(
@@ -26,7 +28,7 @@ public class PostController {
             throw new IllegalArgumentException("At least one file is required");
         }
 
-        com.blog._blog.entity.User user = userRepository.findByEmail(authentication.getName())
+        com.blog._blog.entity.User user = currentUserResolver.findByEmail(authentication.getName())
                 .orElseThrow(() -> new RuntimeException("User not found"));
         if (Boolean.TRUE.equals(user.getBanned())) {
             throw new RuntimeException("You are banned and cannot upload media");
@@ -42,9 +44,10 @@ public class PostController {
     public ResponseEntity<List<PostDTO>> getAllPosts(
             Authentication authentication,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String before) {
         String email = authentication != null ? authentication.getName() : null;
-        return ResponseEntity.ok(postService.getAllPosts(email, page, size));
+        return CursorResponse.ok(postService.getAllPosts(email, page, size, before));
     }
 
     @GetMapping("/{id}")
@@ -58,9 +61,10 @@ public class PostController {
             @PathVariable Integer userId,
             Authentication authentication,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String before) {
         String email = authentication != null ? authentication.getName() : null;
-        return ResponseEntity.ok(postService.getUserPosts(userId, email, page, size));
+        return CursorResponse.ok(postService.getUserPosts(userId, email, page, size, before));
     }
 
     @PostMapping
@@ -83,6 +87,21 @@ public class PostController {
         return ResponseEntity.ok(postService.toggleHidden(id, email));
     }
 
+    @PutMapping("/hidden")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<java.util.Map<String, Integer>> setHidden(@Valid @RequestBody BulkHideRequest request,
+            Authentication authentication) {
+        return ResponseEntity.ok(java.util.Map.of("updated",
+                postService.setHidden(request.getIds(), request.getHidden(), authentication.getName())));
+    }
+
+    @PutMapping("/user/{userId}/hide")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<java.util.Map<String, Integer>> hideAllOfAuthor(@PathVariable Integer userId,
+            Authentication authentication) {
+        return ResponseEntity.ok(java.util.Map.of("updated", postService.hideAllOfAuthor(userId, authentication.getName())));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deletePost(@PathVariable Long id, Authentication authentication) {
         String email = authentication.getName();
@@ -105,9 +124,16 @@ public class PostController {
     }
 
     @GetMapping("/{id}/comments")
-    public ResponseEntity<List<CommentDTO>> getComments(@PathVariable Long id, Authentication authentication) {
+    public ResponseEntity<List<CommentDTO>> getComments(
+            @PathVariable Long id,
+            Authentication authentication,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) Integer size) {
         String email = authentication != null ? authentication.getName() : null;
-        return ResponseEntity.ok(postService.getComments(id, email));
+        if (before == null && size == null) {
+            return ResponseEntity.ok(postService.getComments(id, email));
+        }
+        return CursorResponse.ok(postService.getComments(id, email, before, size != null ? size : 20));
     }
 
     @PostMapping("/comment/{id}/like")
@@ -1,9 +1,11 @@
 package com.blog._blog.controller;
 
+import com.blog._blog.dto.BulkReportStatusRequest;
 import com.blog._blog.dto.CreateReportRequest;
 import com.blog._blog.dto.ReportDTO;
 import com.blog._blog.entity.Report;
 import com.blog._blog.service.ReportService;
+import com.blog._blog.util.CursorResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -12,6 +14,7 @@ import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/reports")
@@ -27,10 +30,28 @@ public class ReportController {
         return ResponseEntity.ok(reportService.createReport(request, email));
     }
 
+    // Moderation queue, newest first. Without before/size the whole queue comes back as before;
+    // with either, one page and the next page's cursor in X-Next-Cursor.
     @GetMapping
     @PreAuthorize("hasAuthority('ADMIN')")
-    public ResponseEntity<List<ReportDTO>> getAllReports(Authentication authentication) {
-        return ResponseEntity.ok(reportService.getAllReports(authentication.getName()));
+    public ResponseEntity<List<ReportDTO>> getReports(Authentication authentication,
+            @RequestParam(required = false) Report.ReportStatus status,
+            @RequestParam(required = false) Report.TargetType type,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) Integer size) {
+        if (before == null && size == null) {
+            return ResponseEntity.ok(reportService.getModerationQueue(authentication.getName(), status, type));
+        }
+        return CursorResponse.ok(reportService.getModerationQueue(authentication.getName(), status, type, before,
+                size != null ? size : 50));
+    }
+
+    @PutMapping("/status")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Map<String, Integer>> updateStatuses(@Valid @RequestBody BulkReportStatusRequest request,
+            Authentication authentication) {
+        return ResponseEntity.ok(Map.of("updated",
+                reportService.updateStatuses(request.getIds(), request.getStatus(), authentication.getName())));
     }
 
     @PutMapping("/{id}/status")
@@ -19,10 +19,11 @@ public class SearchController {
             @RequestParam String q,
             @RequestParam(defaultValue = "all") String filter,
             @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String after,
             Authentication authentication) {
 
         String currentUserEmail = authentication != null ? authentication.getName() : null;
-        Map<String, Object> results = searchService.search(q, filter, limit, currentUserEmail);
+        Map<String, Object> results = searchService.search(q, filter, limit, after, currentUserEmail);
         return ResponseEntity.ok(results);
     }
 }
\ No newline at end of file
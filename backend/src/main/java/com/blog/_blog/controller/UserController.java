@@ -1,8 +1,10 @@
 package com.blog._blog.controller;
 
 import com.blog._blog.dto.AuthenticationResponse;
+import com.blog._blog.dto.BulkBanRequest;
 import com.blog._blog.dto.RegisterRequest;
 import com.blog._blog.dto.UserDTO;
+import com.blog._blog.dto.UserDeletionJobDTO;
 import com.blog._blog.service.AuthenticationService;
 
 import lombok.RequiredArgsConstructor;
@@ -60,12 +62,26 @@ public class UserController {
         return ResponseEntity.ok().build();
     }
 
+    // Deletion runs in the background; poll the returned job for progress.
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAuthority('ADMIN')")
-    public ResponseEntity<Void> deleteUser(@PathVariable Integer id, Authentication authentication) {
+    public ResponseEntity<UserDeletionJobDTO> deleteUser(@PathVariable Integer id, Authentication authentication) {
         String email = authentication.getName();
-        userService.deleteUser(id, email);
-        return ResponseEntity.ok().build();
+        return ResponseEntity.accepted().body(userService.deleteUser(id, email));
+    }
+
+    @GetMapping("/deletions/{jobId}")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<UserDeletionJobDTO> getDeletionJob(@PathVariable Long jobId, Authentication authentication) {
+        return ResponseEntity.ok(userService.getDeletionJob(jobId, authentication.getName()));
+    }
+
+    @PutMapping("/ban")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<java.util.Map<String, Integer>> setBanned(@Valid @RequestBody BulkBanRequest request,
+            Authentication authentication) {
+        return ResponseEntity.ok(java.util.Map.of("updated",
+                userService.setBanned(request.getIds(), request.getBanned(), authentication.getName())));
     }
 
     @PutMapping("/{id}/ban")
@@ -0,0 +1,20 @@
+package com.blog._blog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkBanRequest {
+    @javax.validation.constraints.NotEmpty(message = "At least one id is required")
+    @javax.validation.constraints.Size(max = 1000, message = "At most 1000 ids per request")
+    private List<Integer> ids;
+    @javax.validation.constraints.NotNull(message = "Banned is required")
+    private Boolean banned;
+}
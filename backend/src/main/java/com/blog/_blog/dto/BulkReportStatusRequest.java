@@ -0,0 +1,21 @@
+package com.blog._blog.dto;
+
+import com.blog._blog.entity.Report;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkReportStatusRequest {
+    @javax.validation.constraints.NotEmpty(message = "At least one id is required")
+    @javax.validation.constraints.Size(max = 1000, message = "At most 1000 ids per request")
+    private List<Long> ids;
+    @javax.validation.constraints.NotNull(message = "Status is required")
+    private Report.ReportStatus status;
+}
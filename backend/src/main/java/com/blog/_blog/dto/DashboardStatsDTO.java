@@ -19,4 +19,5 @@ public class DashboardStatsDTO {
     private long pendingReports;
     private List<PlatformActivityDTO> activity;
     private List<ReportedUserDTO> mostReportedUsers;
+    private List<ReportedPostDTO> mostReportedPosts;
 }
@@ -20,6 +20,9 @@ public class NotificationDTO {
     private Long entityId; // e.g. Post ID
     @com.fasterxml.jackson.annotation.JsonProperty("isRead")
     private boolean isRead;
+    private int actorCount; // Distinct actors folded into an aggregated notification
+    private java.util.List<Integer> sampleActorIds; // Most recent of them, newest first
     private LocalDateTime createdAt;
+    private LocalDateTime updatedAt; // Latest actor folded in; equals createdAt for single-actor rows
     private String message; // Constructed message like "John liked your post"
 }
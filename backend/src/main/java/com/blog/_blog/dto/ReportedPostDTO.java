@@ -0,0 +1,19 @@
+package com.blog._blog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportedPostDTO {
+    private Long id;
+    private String title;
+    private Integer authorId;
+    private String authorName;
+    private long reportCount;
+    private boolean hidden;
+}
@@ -0,0 +1,25 @@
+package com.blog._blog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserDeletionJobDTO {
+    private Long id;
+    private Integer userId;
+    private String phase; // COMMENTS, POSTS, ACCOUNT or DONE
+    private long commentsDeleted;
+    private long postsDeleted;
+    private int attempts;
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+}
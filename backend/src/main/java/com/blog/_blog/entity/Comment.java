@@ -18,7 +18,8 @@ import java.util.Set;
 public class Comment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comments_id_seq")
+    @SequenceGenerator(name = "comments_id_seq", sequenceName = "comments_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, columnDefinition = "TEXT")
@@ -37,6 +38,10 @@ public class Comment {
     @Builder.Default
     private Set<User> likes = new HashSet<>();
 
+    // Maintained by CommentRepository.adjustLikeCount, see Post.likeCount.
+    @Column(nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private int likeCount;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
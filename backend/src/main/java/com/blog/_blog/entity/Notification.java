@@ -7,14 +7,25 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
+// Monthly range-partitioned on created_at with a (id, created_at) primary key, see NotificationPartitionManager.
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_recipient_created", columnList = "recipient_id, created_at, id"),
+        @Index(name = "idx_notifications_recipient_id", columnList = "recipient_id, id"),
+        @Index(name = "idx_notifications_aggregate", columnList = "recipient_id, type, entity_id, bucket_start"),
+        @Index(name = "idx_notifications_actor", columnList = "actor_id"),
+        @Index(name = "idx_notifications_type_entity", columnList = "type, entity_id")
+})
 public class Notification {
 
+    // Stays on the database sequence one id at a time rather than pooled blocks per instance. The
+    // read watermark is the recipient's highest id at mark-all-read time; ids are not handed out in
+    // commit order, so it is compared per recipient only. Bulk inserts go through
+    // NotificationFanOutWorker's INSERT ... SELECT anyway.
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -36,11 +47,28 @@ public class Notification {
     @Column(nullable = false)
     private boolean isRead = false;
 
+    // Aggregation: one row per (recipient, type, entityId, bucketStart) while it is unread. actor is
+    // the latest actor, actorCount the distinct actors folded in, sampleActorIds the most recent
+    // few of them (comma separated, newest first). See NotificationService.createNotification.
+    @Builder.Default
+    @Column(nullable = false, columnDefinition = "integer default 1")
+    private int actorCount = 1;
+
+    @Column(length = 64)
+    private String sampleActorIds;
+
+    private LocalDateTime bucketStart;
+
+    // created_at is the partition and cursor key and never changes; folding another actor in only
+    // moves updated_at. Null on rows from before it existed, read as created_at.
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
+    private LocalDateTime updatedAt;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
     }
 }
@@ -19,8 +19,11 @@ import java.util.Set;
 @Table(name = "posts")
 public class Post {
 
+    // Pooled sequence: one nextval reserves 50 ids (the sequence increments by 50, see the V4
+    // migration), so inserts no longer need a round trip each and Hibernate can batch them.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "posts_id_seq")
+    @SequenceGenerator(name = "posts_id_seq", sequenceName = "posts_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -61,6 +64,14 @@ public class Post {
     @Column(columnDefinition = "boolean default false")
     private boolean hidden = false;
 
+    // Denormalized counters. Never written by entity updates (updatable = false) so a stale
+    // entity cannot overwrite them; they only move through the atomic UPDATEs in PostRepository.
+    @Column(nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private int likeCount;
+
+    @Column(nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private int commentCount;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class Report {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reports_id_seq")
+    @SequenceGenerator(name = "reports_id_seq", sequenceName = "reports_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, columnDefinition = "TEXT")
@@ -54,4 +55,10 @@ public class Report {
         RESOLVED,
         DISMISSED
     }
+
+    // What a report is about; a filter of the moderation queue, not a column.
+    public enum TargetType {
+        USER,
+        POST
+    }
 }
@@ -0,0 +1,49 @@
+package com.blog._blog.entity;
+
+import javax.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Materialized home timeline row: one entry per (viewer, visible post) so the feed
+ * is a single range scan on (user_id, created_at) instead of an IN over every followed author.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@IdClass(TimelineEntry.Key.class)
+@Table(name = "timeline_entries", indexes = {
+        @Index(name = "idx_timeline_user_created", columnList = "user_id, created_at, post_id"),
+        @Index(name = "idx_timeline_post", columnList = "post_id"),
+        @Index(name = "idx_timeline_author", columnList = "author_id")
+})
+public class TimelineEntry {
+
+    @Id
+    @Column(name = "user_id")
+    private Integer userId; // Owner of the timeline
+
+    @Id
+    @Column(name = "post_id")
+    private Long postId;
+
+    @Column(name = "author_id", nullable = false)
+    private Integer authorId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt; // Copy of the post's createdAt, used for ordering
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Integer userId;
+        private Long postId;
+    }
+}
@@ -22,7 +22,8 @@ import java.util.List;
 public class User implements UserDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "_user_id_seq")
+    @SequenceGenerator(name = "_user_id_seq", sequenceName = "_user_id_seq", allocationSize = 50)
     private Integer id;
     private String firstname;
     private String lastname;
@@ -39,14 +40,19 @@ public class User implements UserDetails {
     @Column(name = "created_at", updatable = false)
     private java.time.LocalDateTime createdAt;
 
+    @Column(name = "updated_at")
+    private java.time.LocalDateTime updatedAt;
+
     @PrePersist
     protected void onCreate() {
         createdAt = java.time.LocalDateTime.now();
+        updatedAt = createdAt;
         normalizeEmail();
     }
 
     @PreUpdate
     protected void onUpdate() {
+        updatedAt = java.time.LocalDateTime.now();
         normalizeEmail();
     }
 
@@ -72,6 +78,26 @@ public class User implements UserDetails {
     @Builder.Default
     private java.util.Set<User> following = new java.util.HashSet<>();
 
+    // Maintained by UserRepository.adjustFollowersCount/adjustFollowingCount, see Post.likeCount.
+    @Column(nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private int followersCount;
+
+    @Column(nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private int followingCount;
+
+    // Unread stored notifications, maintained by UserRepository.adjustUnreadNotificationsCount.
+    @Column(nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private int unreadNotificationsCount;
+
+    // Read watermark set by "mark all as read": stored notifications with an id up to it, and
+    // pulled NEW_POST items (see NotificationService) created before the timestamp, count as read
+    // whatever their own is_read flag says. Only moved by UserRepository.markAllNotificationsRead.
+    @Column(name = "notifications_read_up_to", updatable = false)
+    private Long notificationsReadUpTo;
+
+    @Column(name = "notifications_read_at", updatable = false)
+    private java.time.LocalDateTime notificationsReadAt;
+
     @ManyToMany(mappedBy = "following")
     @Builder.Default
     @ToString.Exclude
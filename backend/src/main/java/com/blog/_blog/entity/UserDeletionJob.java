@@ -0,0 +1,71 @@
+package com.blog._blog.entity;
+
+import javax.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Background deletion of one user (see UserDeletionWorker). The phase and counters are updated
+ * in the same transaction as the rows each step removes, so the job doubles as its own progress
+ * report and resume point.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "user_deletion_jobs")
+public class UserDeletionJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Not a foreign key: the job outlives the user it deletes.
+    @Column(name = "user_id", nullable = false)
+    private Integer userId;
+
+    @Column(name = "requested_by")
+    private Integer requestedBy;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Phase phase;
+
+    @Column(name = "comments_deleted", nullable = false)
+    private long commentsDeleted;
+
+    @Column(name = "posts_deleted", nullable = false)
+    private long postsDeleted;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    public enum Phase {
+        COMMENTS, // The user's comments, in chunks
+        POSTS, // The user's posts with everything hanging off them, in chunks
+        ACCOUNT, // Likes, follows, notifications, reports and timeline rows, then the user row
+        DONE
+    }
+}
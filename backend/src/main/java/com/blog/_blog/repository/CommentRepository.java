@@ -2,11 +2,64 @@ package com.blog._blog.repository;
 
 import com.blog._blog.entity.Comment;
 import com.blog._blog.entity.User; // Import User entity
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
     List<Comment> findByPostIdOrderByCreatedAtDesc(Long postId);
+
+    Slice<Comment> findByPostIdOrderByCreatedAtDescIdDesc(Long postId, Pageable pageable);
+
+    @Query("SELECT c FROM Comment c WHERE c.post.id = :postId "
+            + "AND (c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id)) "
+            + "ORDER BY c.createdAt DESC, c.id DESC")
+    Slice<Comment> findByPostIdBefore(@Param("postId") Long postId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    @Query("SELECT c.id FROM Comment c JOIN c.likes l WHERE c.id IN :commentIds AND l.id = :userId")
+    List<Long> findLikedCommentIds(@Param("commentIds") Collection<Long> commentIds, @Param("userId") Integer userId);
+
+    // Like toggling works on the join table directly instead of loading the comment's like set.
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM comment_likes WHERE comment_id = :commentId AND user_id = :userId)",
+            nativeQuery = true)
+    boolean existsLike(@Param("commentId") Long commentId, @Param("userId") Integer userId);
+
+    @Modifying
+    @Query(value = "INSERT INTO comment_likes (comment_id, user_id) VALUES (:commentId, :userId) "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertLike(@Param("commentId") Long commentId, @Param("userId") Integer userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM comment_likes WHERE comment_id = :commentId AND user_id = :userId", nativeQuery = true)
+    int deleteLike(@Param("commentId") Long commentId, @Param("userId") Integer userId);
+
+    @Modifying
+    @Query("UPDATE Comment c SET c.likeCount = c.likeCount + :delta WHERE c.id = :commentId")
+    int adjustLikeCount(@Param("commentId") Long commentId, @Param("delta") int delta);
+
+    @Modifying
+    @Query(value = "UPDATE comments SET like_count = like_count - 1 "
+            + "WHERE id IN (SELECT comment_id FROM comment_likes WHERE user_id = :userId)", nativeQuery = true)
+    int decrementLikeCountsLikedBy(@Param("userId") Integer userId);
+
+    // Drift repair over the id range [fromId, toId), guarded like PostRepository.reconcileLikeCounts.
+    @Modifying
+    @Query(value = "UPDATE comments c SET like_count = s.cnt "
+            + "FROM (SELECT c2.id, c2.like_count AS old, COUNT(cl.user_id) AS cnt FROM comments c2 "
+            + "LEFT JOIN comment_likes cl ON cl.comment_id = c2.id "
+            + "WHERE c2.id >= :fromId AND c2.id < :toId GROUP BY c2.id) s "
+            + "WHERE c.id = s.id AND s.old <> s.cnt AND c.like_count = s.old", nativeQuery = true)
+    int reconcileLikeCounts(@Param("fromId") long fromId, @Param("toId") long toId);
+
     void deleteByAuthor(User author); // New method to delete comments by author
 }
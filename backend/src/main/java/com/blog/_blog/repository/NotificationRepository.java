@@ -2,19 +2,111 @@ package com.blog._blog.repository;
 
 import com.blog._blog.entity.Notification;
 import com.blog._blog.entity.NotificationType;
-import com.blog._blog.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
-    List<Notification> findByRecipientOrderByCreatedAtDesc(User recipient);
+    String UNREAD_DELETED = "FROM (SELECT d.recipient_id, COUNT(*) AS cnt FROM d JOIN _user w ON w.id = d.recipient_id "
+            + "WHERE NOT d.is_read AND d.id > COALESCE(w.notifications_read_up_to, 0) GROUP BY d.recipient_id) s ";
+    // sample_actor_ids as a text array, with and without the :actorId parameter.
+    String SAMPLES = "string_to_array(sample_actor_ids, ',')";
+    String SAMPLES_WITHOUT_ACTOR = "array_remove(" + SAMPLES + ", CAST(:actorId AS text))";
 
-    void deleteByRecipient(User recipient);
+    // Actor is fetch-joined so mapping a page costs no extra query per row. The unpaged list has no
+    // cursor to keep stable, so aggregates bumped by a new actor come first.
+    @Query("SELECT n FROM Notification n JOIN FETCH n.actor WHERE n.recipient.id = :recipientId "
+            + "ORDER BY COALESCE(n.updatedAt, n.createdAt) DESC, n.id DESC")
+    List<Notification> findWithActorByRecipientId(@Param("recipientId") Integer recipientId);
 
-    void deleteByActor(User actor);
+    @Query("SELECT n FROM Notification n JOIN FETCH n.actor WHERE n.recipient.id = :recipientId "
+            + "ORDER BY n.createdAt DESC, n.id DESC")
+    Slice<Notification> findPageWithActor(@Param("recipientId") Integer recipientId, Pageable pageable);
 
-    void deleteByRecipientAndActorAndTypeAndEntityId(User recipient, User actor, NotificationType type, Long entityId);
+    @Query("SELECT n FROM Notification n JOIN FETCH n.actor WHERE n.recipient.id = :recipientId "
+            + "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) "
+            + "ORDER BY n.createdAt DESC, n.id DESC")
+    Slice<Notification> findPageWithActorBefore(@Param("recipientId") Integer recipientId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
 
-    void deleteByTypeAndEntityId(NotificationType type, Long entityId);
+    // Stream resume: rows after the client's Last-Event-ID, oldest first.
+    @Query("SELECT n FROM Notification n JOIN FETCH n.actor WHERE n.recipient.id = :recipientId AND n.id > :afterId "
+            + "ORDER BY n.id ASC")
+    List<Notification> findWithActorByRecipientIdAfter(@Param("recipientId") Integer recipientId,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    // Transaction-scoped advisory lock on one aggregation key. Row locks cannot cover the case where
+    // no row exists yet, so two first actors would otherwise both insert.
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(hashtext(:key))) l", nativeQuery = true)
+    Integer lockAggregateKey(@Param("key") String key);
+
+    // The open aggregate a new actor is folded into: same key, still unread and above the watermark.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT n FROM Notification n WHERE n.recipient.id = :recipientId AND n.type = :type "
+            + "AND n.entityId = :entityId AND n.bucketStart = :bucketStart "
+            + "AND n.isRead = false AND n.id > :readUpTo ORDER BY n.id DESC")
+    List<Notification> findOpenAggregateForUpdate(@Param("recipientId") Integer recipientId,
+            @Param("type") NotificationType type,
+            @Param("entityId") Long entityId,
+            @Param("bucketStart") LocalDateTime bucketStart,
+            @Param("readUpTo") Long readUpTo,
+            Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT n FROM Notification n WHERE n.recipient.id = :recipientId AND n.type = :type "
+            + "AND n.entityId = :entityId ORDER BY n.id DESC")
+    List<Notification> findForUpdate(@Param("recipientId") Integer recipientId,
+            @Param("type") NotificationType type,
+            @Param("entityId") Long entityId);
+
+    // Flips a single row; returns 0 when it was already read so the unread counter is not decremented twice.
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.id = :id AND n.isRead = false")
+    int markRead(@Param("id") Long id);
+
+    // Only used when the recipient itself is being deleted, so their counter needs no release.
+    @Modifying
+    @Query(value = "DELETE FROM notifications WHERE recipient_id = :recipientId", nativeQuery = true)
+    int deleteByRecipientId(@Param("recipientId") Integer recipientId);
+
+    // Takes a deleted actor out of the aggregated rows that still have other actors: one actor
+    // fewer, dropped from the samples, and the next sample promoted when they were the shown
+    // actor. Rows left with no other known actor keep actor_id and go with deleteByActorId.
+    @Modifying
+    @Query(value = "UPDATE notifications SET actor_count = actor_count - 1, "
+            + "sample_actor_ids = NULLIF(array_to_string(" + SAMPLES_WITHOUT_ACTOR + ", ','), ''), "
+            + "actor_id = CASE WHEN actor_id = :actorId "
+            + "THEN CAST((" + SAMPLES_WITHOUT_ACTOR + ")[1] AS integer) ELSE actor_id END "
+            + "WHERE (" + SAMPLES + " @> ARRAY[CAST(:actorId AS text)] OR actor_id = :actorId) "
+            + "AND actor_count > 1 "
+            + "AND (actor_id <> :actorId OR cardinality(" + SAMPLES_WITHOUT_ACTOR + ") > 0)", nativeQuery = true)
+    int removeActorFromAggregates(@Param("actorId") Integer actorId);
+
+    // The deletes below release the recipients' unread counters for the unread rows they remove
+    // (not flagged read and above the recipient's read watermark), in the same statement.
+    @Modifying
+    @Query(value = "WITH d AS (DELETE FROM notifications WHERE actor_id = :actorId RETURNING id, recipient_id, is_read) "
+            + "UPDATE _user u SET unread_notifications_count = u.unread_notifications_count - s.cnt "
+            + UNREAD_DELETED
+            + "WHERE u.id = s.recipient_id", nativeQuery = true)
+    int deleteByActorId(@Param("actorId") Integer actorId);
+
+    @Modifying
+    @Query(value = "WITH d AS (DELETE FROM notifications WHERE type = :type AND entity_id = :entityId "
+            + "RETURNING id, recipient_id, is_read) "
+            + "UPDATE _user u SET unread_notifications_count = u.unread_notifications_count - s.cnt "
+            + UNREAD_DELETED
+            + "WHERE u.id = s.recipient_id", nativeQuery = true)
+    int deleteByTypeAndEntityId(@Param("type") String type, @Param("entityId") Long entityId);
 }
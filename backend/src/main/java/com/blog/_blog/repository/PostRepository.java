@@ -3,6 +3,7 @@ package com.blog._blog.repository;
 import com.blog._blog.entity.Post;
 import com.blog._blog.entity.User; // Import User entity
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import java.util.List;
@@ -12,12 +13,12 @@ public interface PostRepository extends JpaRepository<Post, Long> {
 
         List<Post> findByAuthorIdOrderByCreatedAtDesc(Integer authorId);
 
-        org.springframework.data.domain.Page<Post> findByAuthorIdOrderByCreatedAtDesc(Integer authorId,
+        org.springframework.data.domain.Slice<Post> findByAuthorIdOrderByCreatedAtDescIdDesc(Integer authorId,
                         org.springframework.data.domain.Pageable pageable);
 
         List<Post> findAllByOrderByCreatedAtDesc();
 
-        org.springframework.data.domain.Page<Post> findAllByOrderByCreatedAtDesc(
+        org.springframework.data.domain.Slice<Post> findAllByOrderByCreatedAtDescIdDesc(
                         org.springframework.data.domain.Pageable pageable);
 
         org.springframework.data.domain.Page<Post> findByHiddenFalseOrderByCreatedAtDesc(
@@ -31,16 +32,147 @@ public interface PostRepository extends JpaRepository<Post, Long> {
                         Collection<Integer> authorIds,
                         org.springframework.data.domain.Pageable pageable);
 
-        org.springframework.data.domain.Page<Post> findByAuthorIdAndHiddenFalseOrderByCreatedAtDesc(Integer authorId,
+        org.springframework.data.domain.Slice<Post> findByAuthorIdAndHiddenFalseOrderByCreatedAtDescIdDesc(
+                        Integer authorId,
                         org.springframework.data.domain.Pageable pageable);
 
-        @Query("SELECT p FROM Post p WHERE LOWER(p.title) LIKE LOWER(CONCAT('%', :query, '%')) OR LOWER(p.category) LIKE LOWER(CONCAT('%', :query, '%'))")
-        List<Post> searchByTitleOrCategory(@Param("query") String query);
+        // Keyset variants: rows strictly older than (createdAt, id), no OFFSET and no count query.
+        @Query("SELECT p FROM Post p WHERE p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id) "
+                        + "ORDER BY p.createdAt DESC, p.id DESC")
+        org.springframework.data.domain.Slice<Post> findAllBefore(
+                        @Param("createdAt") java.time.LocalDateTime createdAt,
+                        @Param("id") Long id,
+                        org.springframework.data.domain.Pageable pageable);
+
+        @Query("SELECT p FROM Post p WHERE p.author.id = :authorId "
+                        + "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) "
+                        + "ORDER BY p.createdAt DESC, p.id DESC")
+        org.springframework.data.domain.Slice<Post> findByAuthorIdBefore(
+                        @Param("authorId") Integer authorId,
+                        @Param("createdAt") java.time.LocalDateTime createdAt,
+                        @Param("id") Long id,
+                        org.springframework.data.domain.Pageable pageable);
+
+        @Query("SELECT p FROM Post p WHERE p.author.id = :authorId AND p.hidden = false "
+                        + "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) "
+                        + "ORDER BY p.createdAt DESC, p.id DESC")
+        org.springframework.data.domain.Slice<Post> findVisibleByAuthorIdBefore(
+                        @Param("authorId") Integer authorId,
+                        @Param("createdAt") java.time.LocalDateTime createdAt,
+                        @Param("id") Long id,
+                        org.springframework.data.domain.Pageable pageable);
 
-        @Query("SELECT CAST(p.createdAt as date), COUNT(p) FROM Post p WHERE p.createdAt >= :startDate GROUP BY CAST(p.createdAt as date) ORDER BY CAST(p.createdAt as date)")
-        List<Object[]> findPostActivity(@Param("startDate") java.time.LocalDateTime startDate);
+        // Full-text search over posts.search_vector (see PostSearchIndex). Rows are (id, rank) ordered
+        // by rank; hidden posts only match for admins or their author.
+        @Query(value = "SELECT s.id, s.rank FROM ("
+                        + "SELECT p.id, CAST(ts_rank(p.search_vector, q) AS real) AS rank "
+                        + "FROM posts p, websearch_to_tsquery(CAST('english' AS regconfig), :query) q "
+                        + "WHERE p.search_vector @@ q "
+                        + "AND (:admin = true OR p.hidden = false OR p.author_id = :viewerId)) s "
+                        + "ORDER BY s.rank DESC, s.id DESC LIMIT :limit", nativeQuery = true)
+        List<Object[]> searchRanked(@Param("query") String query,
+                        @Param("viewerId") Integer viewerId,
+                        @Param("admin") boolean admin,
+                        @Param("limit") int limit);
+
+        @Query(value = "SELECT s.id, s.rank FROM ("
+                        + "SELECT p.id, CAST(ts_rank(p.search_vector, q) AS real) AS rank "
+                        + "FROM posts p, websearch_to_tsquery(CAST('english' AS regconfig), :query) q "
+                        + "WHERE p.search_vector @@ q "
+                        + "AND (:admin = true OR p.hidden = false OR p.author_id = :viewerId)) s "
+                        + "WHERE s.rank < CAST(:rank AS real) OR (s.rank = CAST(:rank AS real) AND s.id < :id) "
+                        + "ORDER BY s.rank DESC, s.id DESC LIMIT :limit", nativeQuery = true)
+        List<Object[]> searchRankedAfter(@Param("query") String query,
+                        @Param("viewerId") Integer viewerId,
+                        @Param("admin") boolean admin,
+                        @Param("rank") float rank,
+                        @Param("id") Long id,
+                        @Param("limit") int limit);
 
         long countByAuthorId(Integer authorId);
 
+        // Pull side of hybrid NEW_POST delivery: recent posts of followed authors above the fan-out
+        // threshold, minus any that were pushed as rows before the author crossed it.
+        @Query(value = "SELECT p.id, p.author_id, p.created_at FROM posts p "
+                        + "JOIN user_following uf ON uf.following_id = p.author_id AND uf.user_id = :userId "
+                        + "JOIN _user a ON a.id = p.author_id AND a.followers_count > :threshold "
+                        + "WHERE p.hidden = false AND p.created_at >= :since AND p.created_at < :until "
+                        + "AND NOT EXISTS (SELECT 1 FROM notifications n WHERE n.recipient_id = :userId "
+                        + "AND n.type = 'NEW_POST' AND n.entity_id = p.id) "
+                        + "ORDER BY p.created_at DESC, p.id DESC LIMIT :limit", nativeQuery = true)
+        List<Object[]> findRecentPostsOfFollowedPopularAuthors(@Param("userId") Integer userId,
+                        @Param("threshold") int threshold,
+                        @Param("since") java.time.LocalDateTime since,
+                        @Param("until") java.time.LocalDateTime until,
+                        @Param("limit") int limit);
+
+        @Query(value = "SELECT COUNT(*) FROM (SELECT p.id FROM posts p "
+                        + "JOIN user_following uf ON uf.following_id = p.author_id AND uf.user_id = :userId "
+                        + "JOIN _user a ON a.id = p.author_id AND a.followers_count > :threshold "
+                        + "WHERE p.hidden = false AND p.created_at > :since "
+                        + "AND NOT EXISTS (SELECT 1 FROM notifications n WHERE n.recipient_id = :userId "
+                        + "AND n.type = 'NEW_POST' AND n.entity_id = p.id) LIMIT :limit) s", nativeQuery = true)
+        long countRecentPostsOfFollowedPopularAuthors(@Param("userId") Integer userId,
+                        @Param("threshold") int threshold,
+                        @Param("since") java.time.LocalDateTime since,
+                        @Param("limit") int limit);
+
+        @Query("SELECT p.author.id, COUNT(p) FROM Post p WHERE p.author.id IN :authorIds GROUP BY p.author.id")
+        List<Object[]> countByAuthorIds(@Param("authorIds") Collection<Integer> authorIds);
+
+        // Bulk moderation; posts already in the requested state are not touched.
+        @Query("SELECT p.id FROM Post p WHERE p.id IN :ids AND p.hidden <> :hidden")
+        List<Long> findIdsWithHiddenNot(@Param("ids") Collection<Long> ids, @Param("hidden") boolean hidden);
+
+        @Modifying
+        @Query("UPDATE Post p SET p.hidden = :hidden WHERE p.id IN :ids AND p.hidden <> :hidden")
+        int updateHiddenByIdIn(@Param("ids") Collection<Long> ids, @Param("hidden") boolean hidden);
+
+        @Modifying
+        @Query("UPDATE Post p SET p.hidden = true WHERE p.author.id = :authorId AND p.hidden = false")
+        int hideAllByAuthorId(@Param("authorId") Integer authorId);
+
+        @Modifying
+        @Query("UPDATE Post p SET p.likeCount = p.likeCount + :delta WHERE p.id = :postId")
+        int adjustLikeCount(@Param("postId") Long postId, @Param("delta") int delta);
+
+        @Modifying
+        @Query("UPDATE Post p SET p.commentCount = p.commentCount + :delta WHERE p.id = :postId")
+        int adjustCommentCount(@Param("postId") Long postId, @Param("delta") int delta);
+
+        @Modifying
+        @Query(value = "UPDATE posts SET like_count = like_count - 1 "
+                        + "WHERE id IN (SELECT post_id FROM post_likes WHERE user_id = :userId)", nativeQuery = true)
+        int decrementLikeCountsLikedBy(@Param("userId") Integer userId);
+
+        // Drift repair over the id range [fromId, toId): recompute counters from the source tables,
+        // touching only rows that differ and still hold the value the recount saw.
+        @Modifying
+        @Query(value = "UPDATE posts p SET like_count = s.cnt "
+                        + "FROM (SELECT p2.id, p2.like_count AS old, COUNT(pl.user_id) AS cnt FROM posts p2 "
+                        + "LEFT JOIN post_likes pl ON pl.post_id = p2.id "
+                        + "WHERE p2.id >= :fromId AND p2.id < :toId GROUP BY p2.id) s "
+                        + "WHERE p.id = s.id AND s.old <> s.cnt AND p.like_count = s.old", nativeQuery = true)
+        int reconcileLikeCounts(@Param("fromId") long fromId, @Param("toId") long toId);
+
+        @Modifying
+        @Query(value = "UPDATE posts p SET comment_count = s.cnt "
+                        + "FROM (SELECT p2.id, p2.comment_count AS old, COUNT(c.id) AS cnt FROM posts p2 "
+                        + "LEFT JOIN comments c ON c.post_id = p2.id "
+                        + "WHERE p2.id >= :fromId AND p2.id < :toId GROUP BY p2.id) s "
+                        + "WHERE p.id = s.id AND s.old <> s.cnt AND p.comment_count = s.old", nativeQuery = true)
+        int reconcileCommentCounts(@Param("fromId") long fromId, @Param("toId") long toId);
+
+        // Bulk hydration helpers: one grouped query per page instead of one lazy load per post.
+        @Query("SELECT CASE WHEN COUNT(l) > 0 THEN true ELSE false END FROM Post p JOIN p.likes l "
+                        + "WHERE p.id = :postId AND l.id = :userId")
+        boolean existsLike(@Param("postId") Long postId, @Param("userId") Integer userId);
+
+        @Query("SELECT p.id FROM Post p JOIN p.likes l WHERE p.id IN :postIds AND l.id = :userId")
+        List<Long> findLikedPostIds(@Param("postIds") Collection<Long> postIds, @Param("userId") Integer userId);
+
+        @Query("SELECT p.id, i FROM Post p JOIN p.images i WHERE p.id IN :postIds")
+        List<Object[]> findImagesByPostIds(@Param("postIds") Collection<Long> postIds);
+
         void deleteByAuthor(User author);
 }
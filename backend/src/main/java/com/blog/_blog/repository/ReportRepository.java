@@ -1,12 +1,17 @@
 package com.blog._blog.repository;
 
 import com.blog._blog.entity.Report;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying; // Import Modifying
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional; // Import Transactional
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -16,18 +21,47 @@ public interface ReportRepository extends JpaRepository<Report, Long> {
 
     long countByReportedPostId(Long reportedPostId);
 
-    @Query("SELECT r.reportedUser.id, COUNT(r) FROM Report r WHERE r.reportedUser IS NOT NULL GROUP BY r.reportedUser.id ORDER BY COUNT(r) DESC")
-    List<Object[]> findMostReportedUsers();
+    // Moderation queue, newest first. Everything the DTO shows except post images is fetched in the
+    // page query; only to-one associations are joined, so the page limit stays in SQL.
+    @Query("SELECT r FROM Report r JOIN FETCH r.reporter LEFT JOIN FETCH r.reportedUser "
+            + "LEFT JOIN FETCH r.reportedPost p LEFT JOIN FETCH p.author "
+            + "WHERE r.status IN :statuses "
+            + "AND ((:userReports = true AND r.reportedUser IS NOT NULL) "
+            + "OR (:postReports = true AND r.reportedPost IS NOT NULL)) "
+            + "ORDER BY r.createdAt DESC, r.id DESC")
+    Slice<Report> findQueue(@Param("statuses") Collection<Report.ReportStatus> statuses,
+            @Param("userReports") boolean userReports,
+            @Param("postReports") boolean postReports,
+            Pageable pageable);
+
+    @Query("SELECT r FROM Report r JOIN FETCH r.reporter LEFT JOIN FETCH r.reportedUser "
+            + "LEFT JOIN FETCH r.reportedPost p LEFT JOIN FETCH p.author "
+            + "WHERE r.status IN :statuses "
+            + "AND ((:userReports = true AND r.reportedUser IS NOT NULL) "
+            + "OR (:postReports = true AND r.reportedPost IS NOT NULL)) "
+            + "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) "
+            + "ORDER BY r.createdAt DESC, r.id DESC")
+    Slice<Report> findQueueBefore(@Param("statuses") Collection<Report.ReportStatus> statuses,
+            @Param("userReports") boolean userReports,
+            @Param("postReports") boolean postReports,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    @Query("SELECT r.reportedPost.id, COUNT(r) FROM Report r WHERE r.reportedPost.id IN :postIds GROUP BY r.reportedPost.id")
+    List<Object[]> countByReportedPostIds(@org.springframework.data.repository.query.Param("postIds") java.util.Collection<Long> postIds);
+
+    @Query("SELECT r.status, COUNT(r) FROM Report r WHERE r.id IN :ids AND r.status <> :status GROUP BY r.status")
+    List<Object[]> countStatusesToChange(@Param("ids") Collection<Long> ids, @Param("status") Report.ReportStatus status);
 
     @Modifying
-    @Transactional
-    @Query("DELETE FROM Report r WHERE r.reportedPost.id = :reportedPostId") // Explicit DELETE query
-    void deleteByReportedPostId(Long reportedPostId); // New method to delete reports by reportedPostId
+    @Query("UPDATE Report r SET r.status = :status WHERE r.id IN :ids AND r.status <> :status")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids, @Param("status") Report.ReportStatus status);
 
     @Modifying
     @Transactional
-    @Query("DELETE FROM Report r WHERE r.reportedPost.id IN (SELECT p.id FROM Post p WHERE p.author = :author)")
-    void deleteByReportedPostAuthor(com.blog._blog.entity.User author);
+    @Query("DELETE FROM Report r WHERE r.reportedPost.id = :reportedPostId") // Explicit DELETE query
+    int deleteByReportedPostId(Long reportedPostId); // New method to delete reports by reportedPostId
 
     boolean existsByReporterAndReportedUser(com.blog._blog.entity.User reporter, com.blog._blog.entity.User reportedUser);
 
@@ -36,8 +70,4 @@ public interface ReportRepository extends JpaRepository<Report, Long> {
     boolean existsByReporterIdAndReportedUserId(Integer reporterId, Integer reportedUserId);
 
     boolean existsByReporterIdAndReportedPostId(Integer reporterId, Long reportedPostId);
-
-    void deleteByReporter(com.blog._blog.entity.User reporter);
-
-    void deleteByReportedUser(com.blog._blog.entity.User reportedUser);
 }
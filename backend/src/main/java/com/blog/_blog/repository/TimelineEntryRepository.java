@@ -0,0 +1,103 @@
+package com.blog._blog.repository;
+
+import com.blog._blog.entity.TimelineEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface TimelineEntryRepository extends JpaRepository<TimelineEntry, TimelineEntry.Key> {
+
+    @Query("SELECT t FROM TimelineEntry t WHERE t.userId = :userId ORDER BY t.createdAt DESC, t.postId DESC")
+    Slice<TimelineEntry> findEntriesByUserId(@Param("userId") Integer userId, Pageable pageable);
+
+    @Query("SELECT t FROM TimelineEntry t WHERE t.userId = :userId "
+            + "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.postId < :postId)) "
+            + "ORDER BY t.createdAt DESC, t.postId DESC")
+    Slice<TimelineEntry> findEntriesByUserIdBefore(@Param("userId") Integer userId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("postId") Long postId,
+            Pageable pageable);
+
+    // Fan a post out to every follower of its author in a single statement.
+    @Modifying
+    @Query(value = "INSERT INTO timeline_entries (user_id, post_id, author_id, created_at) "
+            + "SELECT uf.user_id, CAST(:postId AS bigint), CAST(:authorId AS integer), CAST(:createdAt AS timestamp) "
+            + "FROM user_following uf WHERE uf.following_id = :authorId "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int fanOutToFollowers(@Param("postId") Long postId,
+            @Param("authorId") Integer authorId,
+            @Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Query(value = "INSERT INTO timeline_entries (user_id, post_id, author_id, created_at) "
+            + "VALUES (:userId, :postId, :authorId, :createdAt) "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertEntry(@Param("userId") Integer userId,
+            @Param("postId") Long postId,
+            @Param("authorId") Integer authorId,
+            @Param("createdAt") LocalDateTime createdAt);
+
+    // Set-based publish of several posts (bulk unhide): author and follower entries in one statement.
+    @Modifying
+    @Query(value = "INSERT INTO timeline_entries (user_id, post_id, author_id, created_at) "
+            + "SELECT p.author_id, p.id, p.author_id, p.created_at FROM posts p "
+            + "WHERE p.id IN (:postIds) AND p.hidden = false "
+            + "UNION ALL "
+            + "SELECT uf.user_id, p.id, p.author_id, p.created_at FROM posts p "
+            + "JOIN user_following uf ON uf.following_id = p.author_id "
+            + "WHERE p.id IN (:postIds) AND p.hidden = false "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int publishPosts(@Param("postIds") Collection<Long> postIds);
+
+    // Copy the most recent visible posts of a newly followed author into the follower's timeline.
+    @Modifying
+    @Query(value = "INSERT INTO timeline_entries (user_id, post_id, author_id, created_at) "
+            + "SELECT CAST(:userId AS integer), p.id, p.author_id, p.created_at FROM posts p "
+            + "WHERE p.author_id = :authorId AND p.hidden = false "
+            + "ORDER BY p.created_at DESC LIMIT :limit "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int backfillFromAuthor(@Param("userId") Integer userId,
+            @Param("authorId") Integer authorId,
+            @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "INSERT INTO timeline_entries (user_id, post_id, author_id, created_at) "
+            + "SELECT uf.user_id, p.id, p.author_id, p.created_at FROM posts p "
+            + "JOIN user_following uf ON uf.following_id = p.author_id "
+            + "WHERE p.hidden = false "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int rebuildFollowerEntries();
+
+    @Modifying
+    @Query(value = "INSERT INTO timeline_entries (user_id, post_id, author_id, created_at) "
+            + "SELECT p.author_id, p.id, p.author_id, p.created_at FROM posts p "
+            + "WHERE p.hidden = false "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int rebuildAuthorEntries();
+
+    @Modifying
+    @Query("DELETE FROM TimelineEntry t WHERE t.postId = :postId")
+    int deleteByPostId(@Param("postId") Long postId);
+
+    @Modifying
+    @Query("DELETE FROM TimelineEntry t WHERE t.postId IN :postIds")
+    int deleteByPostIdIn(@Param("postIds") Collection<Long> postIds);
+
+    @Modifying
+    @Query("DELETE FROM TimelineEntry t WHERE t.authorId = :authorId")
+    int deleteByAuthorId(@Param("authorId") Integer authorId);
+
+    @Modifying
+    @Query("DELETE FROM TimelineEntry t WHERE t.userId = :userId AND t.authorId = :authorId")
+    int deleteByUserIdAndAuthorId(@Param("userId") Integer userId, @Param("authorId") Integer authorId);
+
+    @Modifying
+    @Query("DELETE FROM TimelineEntry t WHERE t.userId = :userId OR t.authorId = :userId")
+    int deleteByUserInvolved(@Param("userId") Integer userId);
+}
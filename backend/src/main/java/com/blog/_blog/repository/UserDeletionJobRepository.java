@@ -0,0 +1,35 @@
+package com.blog._blog.repository;
+
+import com.blog._blog.entity.UserDeletionJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface UserDeletionJobRepository extends JpaRepository<UserDeletionJob, Long> {
+
+    // Claims the oldest unfinished job for this transaction; other workers skip it instead of waiting.
+    @Query(value = "SELECT * FROM user_deletion_jobs WHERE phase <> 'DONE' AND attempts < :maxAttempts "
+            + "ORDER BY id LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<UserDeletionJob> claimNextPending(@Param("maxAttempts") int maxAttempts);
+
+    Optional<UserDeletionJob> findFirstByUserIdAndPhaseNot(Integer userId, UserDeletionJob.Phase phase);
+
+    @Query("SELECT j.userId FROM UserDeletionJob j WHERE j.completedAt > :since")
+    List<Integer> findUserIdsCompletedAfter(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("UPDATE UserDeletionJob j SET j.attempts = j.attempts + 1, j.lastError = :error, "
+            + "j.updatedAt = :now WHERE j.id = :id")
+    int recordFailure(@Param("id") Long id, @Param("error") String error, @Param("now") LocalDateTime now);
+
+    // Gives a job that ran out of attempts a fresh budget; the worker picks it up again on its next pass.
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE UserDeletionJob j SET j.attempts = 0, j.lastError = NULL, j.updatedAt = :now "
+            + "WHERE j.id = :id")
+    int resetAttempts(@Param("id") Long id, @Param("now") LocalDateTime now);
+}
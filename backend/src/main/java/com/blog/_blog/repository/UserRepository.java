@@ -2,8 +2,10 @@ package com.blog._blog.repository;
 
 import com.blog._blog.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,4 +16,106 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     List<User> searchByNameOrEmail(@Param("query") String query);
 
     long countByBanned(boolean banned);
-}
\ No newline at end of file
+
+    // Only the columns the in-memory people index needs: id, firstname, lastname, email.
+    @Query("SELECT u.id, u.firstname, u.lastname, u.email FROM User u")
+    List<Object[]> findSearchFields();
+
+    @Query("SELECT u.id, u.firstname, u.lastname, u.email FROM User u WHERE u.updatedAt > :since")
+    List<Object[]> findSearchFieldsUpdatedAfter(@Param("since") java.time.LocalDateTime since);
+
+    @Query(value = "SELECT following_id FROM user_following WHERE user_id = :userId AND following_id IN (:ids)",
+            nativeQuery = true)
+    List<Integer> findFollowedIds(@Param("userId") Integer userId, @Param("ids") java.util.Collection<Integer> ids);
+
+    // Follow toggling works on the join table directly instead of loading the follower's whole
+    // following set; the row counts returned drive the counters.
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM user_following WHERE user_id = :userId AND following_id = :targetId)",
+            nativeQuery = true)
+    boolean existsFollow(@Param("userId") Integer userId, @Param("targetId") Integer targetId);
+
+    @Modifying
+    @Query(value = "INSERT INTO user_following (user_id, following_id) VALUES (:userId, :targetId) "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertFollow(@Param("userId") Integer userId, @Param("targetId") Integer targetId);
+
+    @Modifying
+    @Query(value = "DELETE FROM user_following WHERE user_id = :userId AND following_id = :targetId", nativeQuery = true)
+    int deleteFollow(@Param("userId") Integer userId, @Param("targetId") Integer targetId);
+
+    @Query("SELECT u.email FROM User u WHERE u.id IN :ids")
+    List<String> findEmailsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    // Bulk ban/unban; rows already in the requested state are left alone so the count is the real change.
+    @Modifying
+    @Query("UPDATE User u SET u.banned = :banned WHERE u.id IN :ids AND u.id <> :exceptId "
+            + "AND COALESCE(u.banned, false) <> :banned")
+    int updateBannedByIdIn(@Param("ids") Collection<Integer> ids,
+            @Param("banned") boolean banned,
+            @Param("exceptId") Integer exceptId);
+
+    @Modifying
+    @Query("UPDATE User u SET u.followersCount = u.followersCount + :delta WHERE u.id = :userId")
+    int adjustFollowersCount(@Param("userId") Integer userId, @Param("delta") int delta);
+
+    @Modifying
+    @Query("UPDATE User u SET u.followingCount = u.followingCount + :delta WHERE u.id = :userId")
+    int adjustFollowingCount(@Param("userId") Integer userId, @Param("delta") int delta);
+
+    @Modifying
+    @Query("UPDATE User u SET u.unreadNotificationsCount = u.unreadNotificationsCount + :delta WHERE u.id = :userId")
+    int adjustUnreadNotificationsCount(@Param("userId") Integer userId, @Param("delta") int delta);
+
+    // Mark-all-read is this one row write. The watermark becomes the recipient's own highest
+    // notification id (never moving back), and the counter drops by exactly the unread rows it
+    // passes over, so increments from notifications above the new watermark are kept.
+    @Modifying
+    @Query(value = "UPDATE _user u SET notifications_read_up_to = GREATEST(m.max_id, u.notifications_read_up_to), "
+            + "notifications_read_at = :readAt, "
+            + "unread_notifications_count = GREATEST(u.unread_notifications_count - ("
+            + "SELECT COUNT(*) FROM notifications n WHERE n.recipient_id = u.id AND NOT n.is_read "
+            + "AND n.id > COALESCE(u.notifications_read_up_to, 0) AND n.id <= COALESCE(m.max_id, 0)), 0) "
+            + "FROM (SELECT MAX(id) AS max_id FROM notifications WHERE recipient_id = :userId) m "
+            + "WHERE u.id = :userId",
+            nativeQuery = true)
+    int markAllNotificationsRead(@Param("userId") Integer userId, @Param("readAt") java.time.LocalDateTime readAt);
+
+    // Before a user disappears, release the follow counters they hold on other users.
+    @Modifying
+    @Query(value = "UPDATE _user SET following_count = following_count - 1 "
+            + "WHERE id IN (SELECT user_id FROM user_following WHERE following_id = :userId)", nativeQuery = true)
+    int decrementFollowingCountsOfFollowers(@Param("userId") Integer userId);
+
+    @Modifying
+    @Query(value = "UPDATE _user SET followers_count = followers_count - 1 "
+            + "WHERE id IN (SELECT following_id FROM user_following WHERE user_id = :userId)", nativeQuery = true)
+    int decrementFollowersCountsOfFollowed(@Param("userId") Integer userId);
+
+    // Drift repair over the id range [fromId, toId), see CounterReconciliationJob. A row is only
+    // written while it still holds the value the recount saw, so an increment committed during
+    // the statement is never overwritten.
+    @Modifying
+    @Query(value = "UPDATE _user u SET followers_count = s.cnt "
+            + "FROM (SELECT u2.id, u2.followers_count AS old, COUNT(uf.user_id) AS cnt FROM _user u2 "
+            + "LEFT JOIN user_following uf ON uf.following_id = u2.id "
+            + "WHERE u2.id >= :fromId AND u2.id < :toId GROUP BY u2.id) s "
+            + "WHERE u.id = s.id AND s.old <> s.cnt AND u.followers_count = s.old", nativeQuery = true)
+    int reconcileFollowersCounts(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @Modifying
+    @Query(value = "UPDATE _user u SET following_count = s.cnt "
+            + "FROM (SELECT u2.id, u2.following_count AS old, COUNT(uf.following_id) AS cnt FROM _user u2 "
+            + "LEFT JOIN user_following uf ON uf.user_id = u2.id "
+            + "WHERE u2.id >= :fromId AND u2.id < :toId GROUP BY u2.id) s "
+            + "WHERE u.id = s.id AND s.old <> s.cnt AND u.following_count = s.old", nativeQuery = true)
+    int reconcileFollowingCounts(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @Modifying
+    @Query(value = "UPDATE _user u SET unread_notifications_count = s.cnt "
+            + "FROM (SELECT u2.id, u2.unread_notifications_count AS old, COUNT(n.id) AS cnt FROM _user u2 "
+            + "LEFT JOIN notifications n ON n.recipient_id = u2.id AND n.is_read = false "
+            + "AND n.id > COALESCE(u2.notifications_read_up_to, 0) "
+            + "WHERE u2.id >= :fromId AND u2.id < :toId GROUP BY u2.id) s "
+            + "WHERE u.id = s.id AND s.old <> s.cnt AND u.unread_notifications_count = s.old", nativeQuery = true)
+    int reconcileUnreadNotificationCounts(@Param("fromId") long fromId, @Param("toId") long toId);
+}
@@ -0,0 +1,49 @@
+package com.blog._blog.security;
+
+import com.blog._blog.entity.User;
+import com.blog._blog.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Optional;
+
+/**
+ * Request-scoped holder for the authenticated {@link User}. The first lookup of a request hits
+ * the database; later services in the same request get the same managed instance (the
+ * persistence context stays open for the whole request) instead of running
+ * {@code findByEmail} again. Outside a web request it simply delegates to the repository.
+ */
+@Component
+@RequiredArgsConstructor
+public class CurrentUserResolver {
+
+    private static final String ATTRIBUTE = CurrentUserResolver.class.getName() + ".user";
+
+    private final UserRepository userRepository;
+
+    public Optional<User> findByEmail(String email) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (email == null || attributes == null) {
+            return email == null ? Optional.empty() : userRepository.findByEmail(email);
+        }
+
+        Object cached = attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (cached instanceof User && email.equalsIgnoreCase(((User) cached).getEmail())) {
+            return Optional.of((User) cached);
+        }
+
+        Optional<User> user = userRepository.findByEmail(email);
+        user.ifPresent(found -> attributes.setAttribute(ATTRIBUTE, found, RequestAttributes.SCOPE_REQUEST));
+        return user;
+    }
+
+    // Forget the request's user, e.g. after it was deleted or replaced within the request.
+    public void clear() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.removeAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+}
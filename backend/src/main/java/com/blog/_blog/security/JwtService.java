@@ -1,6 +1,8 @@
 package com.blog._blog.security;
 
+import com.blog._blog.util.BoundedTtlCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -10,7 +12,11 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -25,17 +31,58 @@ public class JwtService {
     @Value("${jwt.expiration-ms:86400000}")
     private Long expirationMs;
 
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private int verifiedCacheMaxSize;
+
+    @Value("${jwt.verified-cache.ttl-ms:300000}")
+    private long verifiedCacheTtlMs;
+
     private Key signingKey;
 
+    // Thread-safe once built; reused instead of a parserBuilder() per call.
+    private JwtParser parser;
+
+    // SHA-256 of the compact token -> verified subject and expiry. Disabled when max-size is 0.
+    private BoundedTtlCache<String, VerifiedToken> verifiedTokens;
+
     @PostConstruct
     public void init() {
         // decode base64 secret to key
         byte[] keyBytes = Decoders.BASE64.decode(secretKey);
         this.signingKey = Keys.hmacShaKeyFor(keyBytes);
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.verifiedTokens = new BoundedTtlCache<>(verifiedCacheMaxSize, verifiedCacheTtlMs);
+    }
+
+    /**
+     * Parses and verifies the token once and returns its subject and expiry. Tokens verified
+     * recently are served from a bounded cache keyed by the token hash, skipping the signature
+     * check; cached entries never outlive the token's own expiry.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired
+     */
+    public VerifiedToken validate(String token) {
+        String cacheKey = verifiedCacheMaxSize > 0 ? hash(token) : null;
+        if (cacheKey != null) {
+            VerifiedToken cached = verifiedTokens.get(cacheKey);
+            if (cached != null && !cached.isExpired()) {
+                return cached;
+            }
+        }
+
+        Claims claims = extractAllClaims(token);
+        VerifiedToken verified = new VerifiedToken(claims.getSubject(), claims.getExpiration());
+        if (cacheKey != null && verified.getExpiration() != null) {
+            verifiedTokens.put(cacheKey, verified,
+                    verified.getExpiration().getTime() - System.currentTimeMillis());
+        }
+        return verified;
     }
 
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return validate(token).getSubject();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -58,27 +105,51 @@ public class JwtService {
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return isTokenValid(validate(token), userDetails);
+    }
+
+    public boolean isTokenValid(VerifiedToken token, UserDetails userDetails) {
+        return token.getSubject() != null
+                && token.getSubject().equals(userDetails.getUsername())
+                && !token.isExpired();
     }
 
     public Long getExpirationMs() {
         return expirationMs;
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private Claims extractAllClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(signingKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public static final class VerifiedToken {
+        private final String subject;
+        private final Date expiration;
+
+        VerifiedToken(String subject, Date expiration) {
+            this.subject = subject;
+            this.expiration = expiration;
+        }
+
+        public String getSubject() {
+            return subject;
+        }
+
+        public Date getExpiration() {
+            return expiration;
+        }
+
+        public boolean isExpired() {
+            return expiration != null && expiration.getTime() <= System.currentTimeMillis();
+        }
     }
 }
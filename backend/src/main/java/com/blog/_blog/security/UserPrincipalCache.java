@@ -0,0 +1,91 @@
+package com.blog._blog.security;
+
+import com.blog._blog.entity.User;
+import com.blog._blog.repository.UserRepository;
+import com.blog._blog.util.BoundedTtlCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Caches the principal the JWT filter puts into the security context, so authenticating a
+ * request does not cost a {@code findByEmail} round-trip. Entries are detached snapshots holding
+ * only scalar fields (no lazy collections) and are evicted on ban, role change, profile update
+ * and delete.
+ */
+@Component
+public class UserPrincipalCache {
+
+    private final UserRepository userRepository;
+    private final BoundedTtlCache<String, User> principals;
+
+    public UserPrincipalCache(UserRepository userRepository,
+            @Value("${app.auth.principal-cache.max-size:10000}") int maxSize,
+            @Value("${app.auth.principal-cache.ttl-ms:60000}") long ttlMs) {
+        this.userRepository = userRepository;
+        this.principals = new BoundedTtlCache<>(maxSize, ttlMs);
+    }
+
+    public UserDetails loadUserByUsername(String email) {
+        User principal = principals.get(normalize(email), key -> userRepository.findByEmail(key)
+                .map(this::snapshot)
+                .orElse(null));
+        if (principal == null) {
+            throw new UsernameNotFoundException("User not found");
+        }
+        return principal;
+    }
+
+    /**
+     * Drops the cached principal now and again once the surrounding transaction commits, so a
+     * request racing the change cannot re-cache the pre-commit row for a whole TTL.
+     */
+    public void evict(String email) {
+        if (email == null) {
+            return;
+        }
+        String key = normalize(email);
+        principals.invalidate(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    principals.invalidate(key);
+                }
+            });
+        }
+    }
+
+    // Bulk variant of evict(String) for moderation actions touching many users at once.
+    public void evict(Collection<String> emails) {
+        emails.forEach(this::evict);
+    }
+
+    public void evictAll() {
+        principals.invalidateAll();
+    }
+
+    private User snapshot(User user) {
+        return User.builder()
+                .id(user.getId())
+                .firstname(user.getFirstname())
+                .lastname(user.getLastname())
+                .email(user.getEmail())
+                .password(user.getPassword())
+                .role(user.getRole())
+                .banned(user.getBanned())
+                .subscribed(user.getSubscribed())
+                .createdAt(user.getCreatedAt())
+                .build();
+    }
+
+    private String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -27,6 +27,8 @@ public class AuthenticationService {
         private final PasswordEncoder passwordEncoder;
         private final JwtService jwtService;
         private final AuthenticationManager authenticationManager;
+        private final PeopleSearchIndex peopleSearchIndex;
+        private final PlatformStats platformStats;
 
         public AuthenticationResponse register(RegisterRequest request) {
                 String normalizedEmail = sanitizeAndValidateEmail(request.getEmail());
@@ -49,6 +51,8 @@ public class AuthenticationService {
                                 .role(Role.USER)
                                 .build();
                 repository.save(user);
+                peopleSearchIndex.upsert(user);
+                platformStats.userCreated();
                 var jwtToken = jwtService.generateToken(user);
                 return AuthenticationResponse.builder()
                                 .token(jwtToken)
@@ -74,6 +78,8 @@ public class AuthenticationService {
                                 .role(role)
                                 .build();
                 repository.save(user);
+                peopleSearchIndex.upsert(user);
+                platformStats.userCreated();
                 var jwtToken = jwtService.generateToken(user);
                 return AuthenticationResponse.builder()
                                 .token(jwtToken)
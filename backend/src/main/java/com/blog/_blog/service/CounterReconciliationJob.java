@@ -0,0 +1,88 @@
+package com.blog._blog.service;
+
+import com.blog._blog.repository.CommentRepository;
+import com.blog._blog.repository.PostRepository;
+import com.blog._blog.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Repairs drift in the denormalized like/comment/follow/unread counters by recomputing them from
+ * the join tables, on a schedule (and at startup only with {@code app.counters.reconcile-on-startup}).
+ *
+ * <p>Each table is walked in id ranges of {@code app.counters.reconcile-chunk-size}, one short
+ * transaction per range, and a row is only written while it still holds the value its recount
+ * was taken against, so increments committed meanwhile are kept rather than overwritten.
+ */
+@Service
+public class CounterReconciliationJob {
+
+    private static final Logger log = LoggerFactory.getLogger(CounterReconciliationJob.class);
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean reconcileOnStartup;
+    private final int chunkSize;
+
+    public CounterReconciliationJob(PostRepository postRepository,
+            CommentRepository commentRepository,
+            UserRepository userRepository,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.counters.reconcile-on-startup:false}") boolean reconcileOnStartup,
+            @Value("${app.counters.reconcile-chunk-size:10000}") int chunkSize) {
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.reconcileOnStartup = reconcileOnStartup;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        if (reconcileOnStartup) {
+            reconcile();
+        }
+    }
+
+    @Scheduled(cron = "${app.counters.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+        long repaired = inChunks("posts", (from, to) -> postRepository.reconcileLikeCounts(from, to)
+                        + postRepository.reconcileCommentCounts(from, to))
+                + inChunks("comments", commentRepository::reconcileLikeCounts)
+                + inChunks("_user", (from, to) -> userRepository.reconcileFollowersCounts(from, to)
+                        + userRepository.reconcileFollowingCounts(from, to)
+                        + userRepository.reconcileUnreadNotificationCounts(from, to));
+        if (repaired > 0) {
+            log.info("Counter reconciliation repaired {} rows", repaired);
+        }
+    }
+
+    private long inChunks(String table, RangeRepair repair) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        long repaired = 0;
+        for (long from = 0; maxId != null && from <= maxId; from += chunkSize) {
+            long fromId = from;
+            Integer rows = transactionTemplate.execute(status -> repair.apply(fromId, fromId + chunkSize));
+            repaired += rows != null ? rows : 0;
+        }
+        return repaired;
+    }
+
+    @FunctionalInterface
+    private interface RangeRepair {
+        int apply(long fromId, long toId);
+    }
+}
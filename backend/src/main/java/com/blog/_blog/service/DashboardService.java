@@ -2,16 +2,17 @@ package com.blog._blog.service;
 
 import com.blog._blog.dto.DashboardStatsDTO;
 import com.blog._blog.dto.PlatformActivityDTO;
+import com.blog._blog.dto.ReportedPostDTO;
 import com.blog._blog.dto.ReportedUserDTO;
-import com.blog._blog.entity.Report;
+import com.blog._blog.entity.Post;
 import com.blog._blog.entity.User;
 import com.blog._blog.repository.PostRepository;
-import com.blog._blog.repository.ReportRepository;
 import com.blog._blog.repository.UserRepository;
+import com.blog._blog.security.CurrentUserResolver;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -22,43 +23,44 @@ import java.util.stream.Collectors;
 public class DashboardService {
 
         private final UserRepository userRepository;
+        private final CurrentUserResolver currentUserResolver;
         private final PostRepository postRepository;
-        private final ReportRepository reportRepository;
+        private final PlatformStats platformStats;
+        private final ReportCountTracker reportCountTracker;
 
-        public DashboardStatsDTO getDashboardStats(String requesterEmail) {
-                User requester = userRepository.findByEmail(requesterEmail)
+        // Recovery for the report count tables behind the "most reported" lists.
+        public int rebuildReportCounts(String requesterEmail) {
+                User requester = currentUserResolver.findByEmail(requesterEmail)
                                 .orElseThrow(() -> new RuntimeException("User not found"));
 
                 if (requester.getRole() != com.blog._blog.entity.Role.ADMIN) {
                         throw new RuntimeException("Unauthorized");
                 }
+                return reportCountTracker.rebuild();
+        }
 
-                LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
+        public DashboardStatsDTO getDashboardStats(String requesterEmail) {
+                User requester = currentUserResolver.findByEmail(requesterEmail)
+                                .orElseThrow(() -> new RuntimeException("User not found"));
 
-                List<PlatformActivityDTO> activity = postRepository.findPostActivity(thirtyDaysAgo)
-                                .stream()
-                                .map(obj -> PlatformActivityDTO.builder()
-                                                .date(obj[0].toString())
-                                                .count(((Number) obj[1]).longValue())
-                                                .build())
-                                .collect(Collectors.toList());
+                if (requester.getRole() != com.blog._blog.entity.Role.ADMIN) {
+                        throw new RuntimeException("Unauthorized");
+                }
 
-                List<Object[]> mostReportedUsersRaw = reportRepository.findMostReportedUsers()
-                                .stream()
-                                .limit(5)
-                                .collect(Collectors.toList());
+                // Counters and the daily rollup are maintained by PlatformStats; nothing here scans a table.
+                List<PlatformActivityDTO> activity = platformStats.postActivitySince(LocalDate.now().minusDays(30));
 
-                List<Integer> mostReportedUserIds = mostReportedUsersRaw.stream()
-                                .map(obj -> ((Number) obj[0]).intValue())
-                                .collect(Collectors.toList());
-
-                Map<Integer, User> usersById = userRepository.findAllById(mostReportedUserIds).stream()
+                // Top-K kept by ReportCountTracker; only the handful of rows shown are hydrated.
+                List<ReportCountTracker.Entry<Integer>> topUsers = reportCountTracker.topUsers(5);
+                Map<Integer, User> usersById = userRepository.findAllById(topUsers.stream()
+                                .map(ReportCountTracker.Entry::getId)
+                                .collect(Collectors.toList()))
+                                .stream()
                                 .collect(Collectors.toMap(User::getId, user -> user));
 
-                List<ReportedUserDTO> mostReportedUsers = mostReportedUsersRaw.stream()
-                                .map(obj -> {
-                                        Integer userId = ((Number) obj[0]).intValue();
-                                        User user = usersById.get(userId);
+                List<ReportedUserDTO> mostReportedUsers = topUsers.stream()
+                                .map(entry -> {
+                                        User user = usersById.get(entry.getId());
                                         if (user == null) {
                                                 return null;
                                         }
@@ -72,7 +74,7 @@ public class DashboardService {
                                                         .name(fullName)
                                                         .username(username)
                                                         .avatar(user.getAvatar())
-                                                        .reportCount(((Number) obj[1]).longValue())
+                                                        .reportCount(entry.getCount())
                                                         .status(Boolean.TRUE.equals(user.getBanned()) ? "Banned"
                                                                         : "Active")
                                                         .build();
@@ -80,14 +82,42 @@ public class DashboardService {
                                 .filter(Objects::nonNull)
                                 .collect(Collectors.toList());
 
+                List<ReportCountTracker.Entry<Long>> topPosts = reportCountTracker.topPosts(5);
+                Map<Long, Post> postsById = postRepository.findAllById(topPosts.stream()
+                                .map(ReportCountTracker.Entry::getId)
+                                .collect(Collectors.toList()))
+                                .stream()
+                                .collect(Collectors.toMap(Post::getId, post -> post));
+
+                List<ReportedPostDTO> mostReportedPosts = topPosts.stream()
+                                .map(entry -> {
+                                        Post post = postsById.get(entry.getId());
+                                        if (post == null) {
+                                                return null;
+                                        }
+                                        User author = post.getAuthor();
+                                        return ReportedPostDTO.builder()
+                                                        .id(post.getId())
+                                                        .title(post.getTitle())
+                                                        .authorId(author.getId())
+                                                        .authorName(((author.getFirstname() == null ? "" : author.getFirstname()) + " "
+                                                                        + (author.getLastname() == null ? "" : author.getLastname())).trim())
+                                                        .reportCount(entry.getCount())
+                                                        .hidden(post.isHidden())
+                                                        .build();
+                                })
+                                .filter(Objects::nonNull)
+                                .collect(Collectors.toList());
+
                 return DashboardStatsDTO.builder()
-                                .totalUsers(userRepository.count())
-                                .totalPosts(postRepository.count())
-                                .totalReports(reportRepository.count())
-                                .bannedUsers(userRepository.countByBanned(true))
-                                .pendingReports(reportRepository.countByStatus(Report.ReportStatus.PENDING))
+                                .totalUsers(platformStats.totalUsers())
+                                .totalPosts(platformStats.totalPosts())
+                                .totalReports(platformStats.totalReports())
+                                .bannedUsers(platformStats.bannedUsers())
+                                .pendingReports(platformStats.pendingReports())
                                 .activity(activity)
                                 .mostReportedUsers(mostReportedUsers)
+                                .mostReportedPosts(mostReportedPosts)
                                 .build();
         }
 }
@@ -0,0 +1,141 @@
+package com.blog._blog.service;
+
+import com.blog._blog.entity.NotificationType;
+import com.blog._blog.entity.OutboxEvent;
+import com.blog._blog.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Drains the notification outbox. A published post is fanned out to its author's followers in
+ * pages of {@code app.notifications.fan-out-batch-size}, each page being one multi-row
+ * INSERT ... SELECT plus an update of the event's keyset progress, committed together. A crash
+ * therefore resumes at the next follower and never notifies anyone twice.
+ *
+ * <p>Authors above {@code app.notifications.fan-out-follower-threshold} are skipped entirely;
+ * their followers pull new posts at read time (see NotificationService).
+ */
+@Component
+public class NotificationFanOutWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationFanOutWorker.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final int maxAttempts;
+    private final NotificationService notificationService;
+
+    public NotificationFanOutWorker(OutboxEventRepository outboxEventRepository,
+            NotificationService notificationService,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.notifications.fan-out-batch-size:1000}") int batchSize,
+            @Value("${app.notifications.fan-out-max-batches-per-run:50}") int maxBatchesPerRun,
+            @Value("${app.notifications.fan-out-max-attempts:10}") int maxAttempts) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.notificationService = notificationService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.fan-out-interval-ms:500}")
+    public void drain() {
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            if (!processBatch()) {
+                return;
+            }
+        }
+    }
+
+    @Scheduled(cron = "${app.notifications.outbox-cleanup-cron:0 15 * * * *}")
+    public void purgeProcessed() {
+        transactionTemplate.executeWithoutResult(status -> outboxEventRepository
+                .deleteProcessedBefore(LocalDateTime.now().minusDays(1)));
+    }
+
+    // Processes one batch of the oldest pending event; false when there was nothing to do or it failed.
+    private boolean processBatch() {
+        Long[] claimedId = new Long[1];
+        try {
+            Boolean worked = transactionTemplate.execute(status -> {
+                Optional<OutboxEvent> claimed = outboxEventRepository.claimNextPending(maxAttempts);
+                if (claimed.isEmpty()) {
+                    return false;
+                }
+                OutboxEvent event = claimed.get();
+                claimedId[0] = event.getId();
+                if (event.getType() == OutboxEvent.Type.POST_PUBLISHED) {
+                    fanOutNewPost(event);
+                } else {
+                    outboxEventRepository.markProcessed(event.getId(), LocalDateTime.now());
+                }
+                return true;
+            });
+            return Boolean.TRUE.equals(worked);
+        } catch (RuntimeException ex) {
+            log.warn("Outbox event {} failed: {}", claimedId[0], ex.getMessage());
+            if (claimedId[0] != null) {
+                transactionTemplate.executeWithoutResult(
+                        status -> outboxEventRepository.incrementAttempts(claimedId[0]));
+            }
+            return false;
+        }
+    }
+
+    private void fanOutNewPost(OutboxEvent event) {
+        Integer followers = jdbcTemplate.query("SELECT followers_count FROM _user WHERE id = ?",
+                rs -> rs.next() ? rs.getInt(1) : null, event.getActorId());
+        if (followers == null || !notificationService.isFanOutTarget(followers)) {
+            outboxEventRepository.markProcessed(event.getId(), LocalDateTime.now());
+            return;
+        }
+
+        // Joining posts makes a page empty once the post is gone, which ends the fan-out.
+        // The recipients' unread counters move in the same statement.
+        Map<Integer, Long> inserted = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "WITH ins AS (INSERT INTO notifications "
+                        + "(recipient_id, actor_id, type, entity_id, is_read, created_at, updated_at) "
+                        + "SELECT uf.user_id, p.author_id, ?, p.id, false, now(), now() FROM posts p "
+                        + "JOIN (SELECT user_id, following_id FROM user_following "
+                        + "WHERE following_id = ? AND user_id > ? ORDER BY user_id LIMIT ?) uf "
+                        + "ON uf.following_id = p.author_id "
+                        + "WHERE p.id = ? RETURNING id, recipient_id), "
+                        + "counted AS (UPDATE _user SET unread_notifications_count = unread_notifications_count + 1 "
+                        + "WHERE id IN (SELECT recipient_id FROM ins)) "
+                        + "SELECT id, recipient_id FROM ins",
+                (RowCallbackHandler) rs -> inserted.put(rs.getInt("recipient_id"), rs.getLong("id")),
+                NotificationType.NEW_POST.name(),
+                event.getActorId(),
+                event.getProgress(),
+                batchSize,
+                event.getAggregateId());
+
+        // Delivered to open streams after this batch commits.
+        notificationService.publishNewPost(event.getActorId(), event.getAggregateId(), inserted);
+
+        if (inserted.size() < batchSize) {
+            outboxEventRepository.markProcessed(event.getId(), LocalDateTime.now());
+        } else {
+            long last = inserted.keySet().stream().mapToLong(Integer::longValue).max().orElse(event.getProgress());
+            outboxEventRepository.updateProgress(event.getId(), last);
+        }
+    }
+}
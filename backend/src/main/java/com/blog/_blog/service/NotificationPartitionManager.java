@@ -0,0 +1,194 @@
+package com.blog._blog.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps {@code notifications} range-partitioned by month on {@code created_at}
+ * ({@code notifications_pYYYYMM} plus a default partition), so old data leaves by partition
+ * instead of by row-by-row DELETE:
+ * <ul>
+ *   <li>partitions are created {@code app.notifications.partitions.months-ahead} months ahead, and
+ *   rows that landed in the default partition are moved out into their month's partition;</li>
+ *   <li>a month older than {@code app.notifications.retention.read-months} is compacted once: its
+ *   unread rows are copied into a fresh table that is swapped in, the read rest is dropped whole;</li>
+ *   <li>a month older than {@code app.notifications.retention.months} is detached and dropped,
+ *   after releasing the unread counters it still held.</li>
+ * </ul>
+ * The partitioned table and its first partitions come from the V3 migration; its primary key is
+ * (id, created_at) since Postgres requires the partition key in it.
+ */
+@Component
+public class NotificationPartitionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationPartitionManager.class);
+
+    private static final String TABLE = "notifications";
+    private static final Pattern PARTITION_NAME = Pattern.compile("^notifications_p(\\d{6})$");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String COMPACTED = "compacted";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+    private final int readRetentionMonths;
+    private final int retentionMonths;
+
+    public NotificationPartitionManager(JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.notifications.partitions.months-ahead:2}") int monthsAhead,
+            @Value("${app.notifications.retention.read-months:3}") int readRetentionMonths,
+            @Value("${app.notifications.retention.months:12}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.monthsAhead = monthsAhead;
+        this.readRetentionMonths = readRetentionMonths;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void maintainOnStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${app.notifications.partitions.maintenance-cron:0 0 4 * * *}")
+    public void maintain() {
+        if (!Boolean.TRUE.equals(isPartitioned())) {
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        // Months stranded in the default partition get their own partition too, so retention reaches them.
+        Set<YearMonth> months = new TreeSet<>(monthsInDefault());
+        for (int i = 0; i <= monthsAhead; i++) {
+            months.add(current.plusMonths(i));
+        }
+        for (YearMonth month : months) {
+            try {
+                jdbcTemplate.execute(createPartitionSql(month));
+            } catch (DataAccessException ex) {
+                // Fails when the default partition already holds rows for that month, and keeps failing
+                // until they are moved out, so move them now.
+                try {
+                    transactionTemplate.executeWithoutResult(status -> splitFromDefault(month));
+                    log.info("Moved the {} notifications out of the default partition into {}", month,
+                            partitionName(month));
+                } catch (DataAccessException splitEx) {
+                    log.error("Could not create notification partition for {}: {}", month, splitEx.getMessage());
+                }
+            }
+        }
+
+        YearMonth compactBefore = current.minusMonths(readRetentionMonths);
+        YearMonth dropBefore = current.minusMonths(retentionMonths);
+        for (Map<String, Object> partition : listPartitions()) {
+            String name = (String) partition.get("relname");
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.parse(matcher.group(1), SUFFIX);
+            try {
+                if (month.isBefore(dropBefore)) {
+                    transactionTemplate.executeWithoutResult(status -> dropPartition(name));
+                    log.info("Dropped notification partition {}", name);
+                } else if (month.isBefore(compactBefore) && !COMPACTED.equals(partition.get("note"))) {
+                    transactionTemplate.executeWithoutResult(status -> compactPartition(name, month));
+                    log.info("Compacted notification partition {}", name);
+                }
+            } catch (DataAccessException ex) {
+                log.warn("Retention of notification partition {} failed: {}", name, ex.getMessage());
+            }
+        }
+    }
+
+    // True when partitioned, false when a plain table, null when the table does not exist yet.
+    private Boolean isPartitioned() {
+        return jdbcTemplate.query("SELECT c.relkind = 'p' FROM pg_class c WHERE c.oid = to_regclass(?)",
+                rs -> rs.next() ? rs.getBoolean(1) : null, TABLE);
+    }
+
+    private List<Map<String, Object>> listPartitions() {
+        return jdbcTemplate.queryForList("SELECT c.relname, obj_description(c.oid, 'pg_class') AS note "
+                + "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                + "WHERE i.inhparent = to_regclass(?) ORDER BY c.relname", TABLE);
+    }
+
+    private List<YearMonth> monthsInDefault() {
+        return jdbcTemplate.queryForList("SELECT DISTINCT to_char(created_at, 'YYYYMM') FROM " + TABLE + "_default",
+                String.class).stream()
+                .map(suffix -> YearMonth.parse(suffix, SUFFIX))
+                .collect(Collectors.toList());
+    }
+
+    private String createPartitionSql(YearMonth month) {
+        return "CREATE TABLE IF NOT EXISTS " + partitionName(month) + " PARTITION OF " + TABLE + bounds(month);
+    }
+
+    private static String bounds(YearMonth month) {
+        return " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')";
+    }
+
+    private String partitionName(YearMonth month) {
+        return TABLE + "_p" + month.format(SUFFIX);
+    }
+
+    // Unread rows are those not flagged read and above the recipient's read watermark.
+    private static String unreadRowsOf(String partition) {
+        return "FROM " + partition + " n JOIN _user w ON w.id = n.recipient_id "
+                + "WHERE NOT n.is_read AND n.id > COALESCE(w.notifications_read_up_to, 0)";
+    }
+
+    private void dropPartition(String name) {
+        jdbcTemplate.execute("LOCK TABLE " + name + " IN SHARE MODE");
+        jdbcTemplate.update("UPDATE _user u SET unread_notifications_count = u.unread_notifications_count - s.cnt "
+                + "FROM (SELECT n.recipient_id, COUNT(*) AS cnt " + unreadRowsOf(name)
+                + " GROUP BY n.recipient_id) s WHERE u.id = s.recipient_id");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + name);
+        jdbcTemplate.execute("DROP TABLE " + name);
+    }
+
+    // Builds the month's partition as a standalone table holding the month's rows taken out of the
+    // default partition, then attaches it. The default partition stays locked throughout so no row
+    // for the month can land there in between.
+    private void splitFromDefault(YearMonth month) {
+        String name = partitionName(month);
+        String defaultPartition = TABLE + "_default";
+        jdbcTemplate.execute("LOCK TABLE " + defaultPartition + " IN ACCESS EXCLUSIVE MODE");
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE " + TABLE + " INCLUDING DEFAULTS)");
+        jdbcTemplate.update("WITH moved AS (DELETE FROM " + defaultPartition
+                + " WHERE created_at >= ? AND created_at < ? RETURNING *) INSERT INTO " + name + " SELECT * FROM moved",
+                month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay());
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ATTACH PARTITION " + name + bounds(month));
+    }
+
+    private void compactPartition(String name, YearMonth month) {
+        String compacted = name + "_compacting";
+        jdbcTemplate.execute("LOCK TABLE " + name + " IN SHARE MODE");
+        jdbcTemplate.execute("CREATE TABLE " + compacted + " (LIKE " + TABLE + " INCLUDING DEFAULTS)");
+        jdbcTemplate.update("INSERT INTO " + compacted + " SELECT n.* " + unreadRowsOf(name));
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + name);
+        jdbcTemplate.execute("DROP TABLE " + name);
+        jdbcTemplate.execute("ALTER TABLE " + compacted + " RENAME TO " + name);
+        // Attaching builds the parent's indexes on the (small) new table and checks its bounds.
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ATTACH PARTITION " + name + bounds(month));
+        jdbcTemplate.execute("COMMENT ON TABLE " + name + " IS '" + COMPACTED + "'");
+    }
+}
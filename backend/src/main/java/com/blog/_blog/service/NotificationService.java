@@ -1,37 +1,250 @@
 package com.blog._blog.service;
 
+import com.blog._blog.dto.CursorPageDTO;
 import com.blog._blog.dto.NotificationDTO;
 import com.blog._blog.entity.Notification;
 import com.blog._blog.entity.NotificationType;
 import com.blog._blog.entity.User;
 import com.blog._blog.repository.NotificationRepository;
+import com.blog._blog.repository.PostRepository;
 import com.blog._blog.repository.UserRepository;
+import com.blog._blog.security.CurrentUserResolver;
+import com.blog._blog.util.FeedCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class NotificationService {
 
+    private static final int SAMPLE_ACTORS = 3;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final NotificationRepository notificationRepository;
+    private final CurrentUserResolver currentUserResolver;
+    private final PostRepository postRepository;
     private final UserRepository userRepository;
+    private final NotificationStreamRegistry notificationStreamRegistry;
+
+    // Authors with more followers than this get no per-follower NEW_POST rows; readers pull instead.
+    @Value("${app.notifications.fan-out-follower-threshold:10000}")
+    private int fanOutFollowerThreshold;
+
+    @Value("${app.notifications.pull-lookback-days:30}")
+    private int pullLookbackDays;
+
+    @Value("${app.notifications.pull-limit:50}")
+    private int pullLimit;
+
+    // Likes, comments and follows on the same entity within one window share a notification row.
+    @Value("${app.notifications.aggregation-window-minutes:1440}")
+    private int aggregationWindowMinutes;
+
+    @Value("${app.notifications.stream.buffer-size:100}")
+    private int streamReplayLimit;
 
     @Transactional(readOnly = true)
     public List<NotificationDTO> getUserNotifications(String email) {
-        User recipient = userRepository.findByEmail(email)
+        User recipient = currentUserResolver.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        List<NotificationDTO> notifications = notificationRepository.findWithActorByRecipientId(recipient.getId())
+                .stream()
+                .map(notification -> mapToDTO(notification, recipient))
+                .collect(Collectors.toList());
+        return mergePulled(notifications, pullPopularAuthorPosts(recipient, null, null));
+    }
+
+    /**
+     * One keyset page over (recipient_id, created_at, id), actors fetch-joined. Pulled NEW_POST
+     * items are merged into the page whose time range they fall in.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<NotificationDTO> getUserNotifications(String email, String before, int size) {
+        User recipient = currentUserResolver.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        FeedCursor cursor = FeedCursor.parse(before);
+        PageRequest pageable = PageRequest.of(0, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+        Slice<Notification> page = cursor == null
+                ? notificationRepository.findPageWithActor(recipient.getId(), pageable)
+                : notificationRepository.findPageWithActorBefore(recipient.getId(), cursor.getCreatedAt(),
+                        cursor.getId(), pageable);
+
+        List<Notification> rows = page.getContent();
+        LocalDateTime upper = cursor != null ? cursor.getCreatedAt() : null;
+        // With more rows to come the page ends at its oldest row; otherwise it runs to the pull horizon.
+        LocalDateTime lower = page.hasNext() ? rows.get(rows.size() - 1).getCreatedAt() : null;
+
+        List<NotificationDTO> items = mergePulled(
+                rows.stream().map(notification -> mapToDTO(notification, recipient)).collect(Collectors.toList()),
+                pullPopularAuthorPosts(recipient, lower, upper));
+
+        String nextCursor = null;
+        if (page.hasNext() && !rows.isEmpty()) {
+            Notification last = rows.get(rows.size() - 1);
+            nextCursor = FeedCursor.encode(last.getCreatedAt(), last.getId());
+        }
+        return CursorPageDTO.<NotificationDTO>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    // Stored unread rows come from the counter on _user; only pulled items need a (bounded) query.
+    @Transactional(readOnly = true)
+    public long getUnreadCount(String email) {
+        User recipient = currentUserResolver.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        return notificationRepository.findByRecipientOrderByCreatedAtDesc(recipient).stream()
-                .map(this::mapToDTO)
+        LocalDateTime since = LocalDateTime.now().minusDays(pullLookbackDays);
+        if (recipient.getNotificationsReadAt() != null && recipient.getNotificationsReadAt().isAfter(since)) {
+            since = recipient.getNotificationsReadAt();
+        }
+        long pulledUnread = postRepository.countRecentPostsOfFollowedPopularAuthors(
+                recipient.getId(), fanOutFollowerThreshold, since, pullLimit);
+        return Math.max(0, recipient.getUnreadNotificationsCount()) + pulledUnread;
+    }
+
+    /**
+     * Opens a live stream. With {@code lastEventId} (the browser's Last-Event-ID on reconnect) the
+     * stored notifications created since are replayed first, up to one buffer's worth.
+     */
+    @Transactional(readOnly = true)
+    public SseEmitter subscribe(String email, Long lastEventId) {
+        User recipient = currentUserResolver.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        NotificationStreamRegistry.Subscription subscription = notificationStreamRegistry.subscribe(recipient.getId());
+        List<NotificationDTO> missed = lastEventId == null || lastEventId < 0
+                ? List.of()
+                : notificationRepository.findWithActorByRecipientIdAfter(recipient.getId(), lastEventId,
+                                PageRequest.of(0, streamReplayLimit))
+                        .stream()
+                        .map(notification -> mapToDTO(notification, recipient))
+                        .collect(Collectors.toList());
+        subscription.replay(missed);
+        return subscription.getEmitter();
+    }
+
+    /**
+     * Pushes one fanned-out NEW_POST batch to whichever recipients are connected right now.
+     * {@code notificationIds} maps recipient to the id of the row just inserted for them.
+     */
+    public void publishNewPost(Integer actorId, Long postId, Map<Integer, Long> notificationIds) {
+        List<Integer> connected = notificationIds.keySet().stream()
+                .filter(notificationStreamRegistry::isConnected)
                 .collect(Collectors.toList());
+        if (connected.isEmpty()) {
+            return;
+        }
+        User actor = userRepository.findById(actorId).orElse(null);
+        if (actor == null) {
+            return;
+        }
+        String actorName = actor.getFirstname() + " " + actor.getLastname();
+        LocalDateTime createdAt = LocalDateTime.now();
+        for (Integer recipientId : connected) {
+            notificationStreamRegistry.publish(recipientId, NotificationDTO.builder()
+                    .id(notificationIds.get(recipientId))
+                    .actorName(actorName)
+                    .actorAvatar(actor.getAvatar())
+                    .actorId(actor.getId())
+                    .type(NotificationType.NEW_POST)
+                    .entityId(postId)
+                    .isRead(false)
+                    .actorCount(1)
+                    .createdAt(createdAt)
+                    .updatedAt(createdAt)
+                    .message(generateMessage(actorName, NotificationType.NEW_POST))
+                    .build());
+        }
+    }
+
+    public boolean isFanOutTarget(int followersCount) {
+        return followersCount <= fanOutFollowerThreshold;
+    }
+
+    private List<NotificationDTO> mergePulled(List<NotificationDTO> notifications, List<NotificationDTO> pulled) {
+        if (pulled.isEmpty()) {
+            return notifications;
+        }
+        List<NotificationDTO> merged = new ArrayList<>(notifications.size() + pulled.size());
+        merged.addAll(notifications);
+        merged.addAll(pulled);
+        merged.sort(Comparator.comparing(NotificationDTO::getUpdatedAt).reversed());
+        return merged;
+    }
+
+    /**
+     * NEW_POST items for followed authors above the fan-out threshold, built at read time. They
+     * carry the negated post id as id (no row backs them) and are read once older than the
+     * user's last mark-all-as-read. Bounds are optional: {@code from} inclusive, {@code until}
+     * exclusive.
+     */
+    private List<NotificationDTO> pullPopularAuthorPosts(User recipient, LocalDateTime from, LocalDateTime until) {
+        LocalDateTime horizon = LocalDateTime.now().minusDays(pullLookbackDays);
+        List<Object[]> rows = postRepository.findRecentPostsOfFollowedPopularAuthors(
+                recipient.getId(),
+                fanOutFollowerThreshold,
+                from != null && from.isAfter(horizon) ? from : horizon,
+                until != null ? until : LocalDateTime.now().plusDays(1),
+                pullLimit);
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Integer> authorIds = rows.stream().map(row -> ((Number) row[1]).intValue()).collect(Collectors.toSet());
+        Map<Integer, User> authorsById = userRepository.findAllById(authorIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        LocalDateTime readAt = recipient.getNotificationsReadAt();
+
+        List<NotificationDTO> pulled = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Long postId = ((Number) row[0]).longValue();
+            User author = authorsById.get(((Number) row[1]).intValue());
+            LocalDateTime createdAt = ((java.sql.Timestamp) row[2]).toLocalDateTime();
+            if (author == null) {
+                continue;
+            }
+            String actorName = author.getFirstname() + " " + author.getLastname();
+            pulled.add(NotificationDTO.builder()
+                    .id(-postId)
+                    .actorName(actorName)
+                    .actorAvatar(author.getAvatar())
+                    .actorId(author.getId())
+                    .type(NotificationType.NEW_POST)
+                    .entityId(postId)
+                    .isRead(readAt != null && !createdAt.isAfter(readAt))
+                    .actorCount(1)
+                    .createdAt(createdAt)
+                    .updatedAt(createdAt)
+                    .message(generateMessage(actorName, NotificationType.NEW_POST))
+                    .build());
+        }
+        return pulled;
     }
 
     @Transactional
     public void markAsRead(Long id, String email) {
+        if (id != null && id < 0) {
+            return; // Pulled NEW_POST item, only cleared by markAllAsRead
+        }
         Notification notification = notificationRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Notification not found"));
 
@@ -39,50 +252,160 @@ public class NotificationService {
             throw new RuntimeException("Unauthorized");
         }
 
-        notification.setRead(true);
-        notificationRepository.save(notification);
+        if (isBelowWatermark(notification, notification.getRecipient())) {
+            return; // Already read through the watermark and not counted as unread
+        }
+        if (notificationRepository.markRead(id) > 0) {
+            userRepository.adjustUnreadNotificationsCount(notification.getRecipient().getId(), -1);
+        }
     }
 
+    // Moves the user's read watermark; individual rows keep their is_read flag untouched.
     @Transactional
     public void markAllAsRead(String email) {
-        User recipient = userRepository.findByEmail(email)
+        User recipient = currentUserResolver.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        List<Notification> unread = notificationRepository.findByRecipientOrderByCreatedAtDesc(recipient);
-        unread.forEach(n -> n.setRead(true));
-        notificationRepository.saveAll(unread);
+        userRepository.markAllNotificationsRead(recipient.getId(), LocalDateTime.now());
     }
 
+    /**
+     * Records that {@code actor} did {@code type} to the recipient. While the recipient has not read
+     * it yet, the row for the same (type, entityId) and aggregation window absorbs further actors
+     * ("X and 41 others liked your post") instead of a new row being inserted per action.
+     */
     @Transactional
     public void createNotification(User recipient, User actor, NotificationType type, Long entityId) {
         if (recipient.getId().equals(actor.getId())) {
             return; // Don't notify self actions
         }
 
+        LocalDateTime bucketStart = bucketStart(LocalDateTime.now());
+        if (bucketStart != null && entityId != null) {
+            lockAggregateKey(recipient, type, entityId);
+            Long readUpTo = recipient.getNotificationsReadUpTo();
+            List<Notification> open = notificationRepository.findOpenAggregateForUpdate(recipient.getId(), type,
+                    entityId, bucketStart, readUpTo != null ? readUpTo : 0L, PageRequest.of(0, 1));
+            if (!open.isEmpty()) {
+                Notification aggregate = open.get(0);
+                List<Integer> samples = sampleActorIds(aggregate);
+                if (!samples.remove(actor.getId())) {
+                    aggregate.setActorCount(aggregate.getActorCount() + 1);
+                }
+                samples.add(0, actor.getId());
+                aggregate.setSampleActorIds(joinSamples(samples));
+                aggregate.setActor(actor);
+                aggregate.setUpdatedAt(LocalDateTime.now());
+                notificationStreamRegistry.publish(recipient.getId(), mapToDTO(aggregate, recipient));
+                return;
+            }
+        }
+
         Notification notification = Notification.builder()
                 .recipient(recipient)
                 .actor(actor)
                 .type(type)
                 .entityId(entityId)
                 .isRead(false)
+                .actorCount(1)
+                .sampleActorIds(String.valueOf(actor.getId()))
+                .bucketStart(bucketStart)
                 .build();
 
         notificationRepository.save(notification);
+        userRepository.adjustUnreadNotificationsCount(recipient.getId(), 1);
+        notificationStreamRegistry.publish(recipient.getId(), mapToDTO(notification, recipient));
     }
 
+    /**
+     * Takes {@code actor} back out of the recipient's notification for (type, entityId), e.g. on
+     * unlike. A row is only deleted once no actor is left in it.
+     */
     @Transactional
     public void deleteNotification(User recipient, User actor, NotificationType type, Long entityId) {
-        notificationRepository.deleteByRecipientAndActorAndTypeAndEntityId(recipient, actor, type, entityId);
+        if (entityId != null) {
+            lockAggregateKey(recipient, type, entityId);
+        }
+        List<Notification> rows = notificationRepository.findForUpdate(recipient.getId(), type, entityId);
+        // Prefer the row that lists the actor; otherwise one that holds actors beyond its samples.
+        Notification target = rows.stream()
+                .filter(row -> row.getActor().getId().equals(actor.getId())
+                        || sampleActorIds(row).contains(actor.getId()))
+                .findFirst()
+                .orElseGet(() -> rows.stream()
+                        .filter(row -> row.getActorCount() > sampleActorIds(row).size())
+                        .findFirst()
+                        .orElse(null));
+        if (target == null) {
+            return;
+        }
+
+        if (target.getActorCount() <= 1) {
+            notificationRepository.delete(target);
+            if (!target.isRead() && !isBelowWatermark(target, recipient)) {
+                userRepository.adjustUnreadNotificationsCount(recipient.getId(), -1);
+            }
+            return;
+        }
+
+        List<Integer> samples = sampleActorIds(target);
+        samples.remove(actor.getId());
+        target.setActorCount(target.getActorCount() - 1);
+        target.setSampleActorIds(joinSamples(samples));
+        if (target.getActor().getId().equals(actor.getId()) && !samples.isEmpty()) {
+            target.setActor(userRepository.getReferenceById(samples.get(0)));
+        }
+    }
+
+    // Held until commit, so the lookup-then-insert in createNotification is one step per key.
+    private void lockAggregateKey(User recipient, NotificationType type, Long entityId) {
+        notificationRepository.lockAggregateKey(recipient.getId() + ":" + type.name() + ":" + entityId);
+    }
+
+    // Start of the aggregation window containing {@code time}, or null when aggregation is off.
+    private LocalDateTime bucketStart(LocalDateTime time) {
+        if (aggregationWindowMinutes <= 0) {
+            return null;
+        }
+        long windowSeconds = aggregationWindowMinutes * 60L;
+        long epochSecond = time.toEpochSecond(ZoneOffset.UTC);
+        return LocalDateTime.ofEpochSecond(epochSecond - Math.floorMod(epochSecond, windowSeconds), 0, ZoneOffset.UTC);
+    }
+
+    private List<Integer> sampleActorIds(Notification notification) {
+        List<Integer> ids = new ArrayList<>();
+        if (notification.getSampleActorIds() != null && !notification.getSampleActorIds().isEmpty()) {
+            for (String id : notification.getSampleActorIds().split(",")) {
+                ids.add(Integer.valueOf(id));
+            }
+        }
+        return ids;
+    }
+
+    private String joinSamples(List<Integer> ids) {
+        return ids.stream()
+                .limit(SAMPLE_ACTORS)
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
     }
 
     @Transactional
     public void deleteNotificationsByTypeAndEntity(NotificationType type, Long entityId) {
-        notificationRepository.deleteByTypeAndEntityId(type, entityId);
+        notificationRepository.deleteByTypeAndEntityId(type.name(), entityId);
+    }
+
+    private boolean isBelowWatermark(Notification notification, User recipient) {
+        Long readUpTo = recipient.getNotificationsReadUpTo();
+        return readUpTo != null && notification.getId() <= readUpTo;
     }
 
-    private NotificationDTO mapToDTO(Notification notification) {
+    private NotificationDTO mapToDTO(Notification notification, User recipient) {
         String actorName = notification.getActor().getFirstname() + " " + notification.getActor().getLastname();
-        String message = generateMessage(actorName, notification.getType());
+        int othersCount = Math.max(0, notification.getActorCount() - 1);
+        String message = othersCount == 0
+                ? generateMessage(actorName, notification.getType())
+                : "and " + othersCount + (othersCount == 1 ? " other " : " others ")
+                        + generateMessage(actorName, notification.getType());
 
         return NotificationDTO.builder()
                 .id(notification.getId())
@@ -91,8 +414,11 @@ public class NotificationService {
                 .actorId(notification.getActor().getId())
                 .type(notification.getType())
                 .entityId(notification.getEntityId())
-                .isRead(notification.isRead())
+                .isRead(notification.isRead() || isBelowWatermark(notification, recipient))
+                .actorCount(Math.max(1, notification.getActorCount()))
+                .sampleActorIds(sampleActorIds(notification))
                 .createdAt(notification.getCreatedAt())
+                .updatedAt(notification.getUpdatedAt() != null ? notification.getUpdatedAt() : notification.getCreatedAt())
                 .message(message)
                 .build();
     }
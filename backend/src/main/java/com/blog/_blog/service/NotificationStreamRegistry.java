@@ -0,0 +1,349 @@
+package com.blog._blog.service;
+
+import com.blog._blog.dto.NotificationDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process registry of live notification streams ({@code GET /api/notifications/stream}).
+ * Connections are {@link SseEmitter}s, so they sit on the servlet container's async support and
+ * hold no request thread while idle.
+ *
+ * <p>Publishers never write to a socket: events go into a bounded per-connection buffer that
+ * drops its oldest entry when full, and a dispatcher pool drains the buffers. A slow client
+ * therefore only loses its own backlog (and can resume from the database with
+ * {@code Last-Event-ID}) instead of stalling the request that created the notification.
+ *
+ * <p>A send blocks while the client's TCP window is full. The pool grows to
+ * {@code app.notifications.stream.dispatch-threads} so a few such clients do not hold up the
+ * rest, and a watchdog closes any connection whose send has been stuck for longer than
+ * {@code app.notifications.stream.write-timeout-ms}.
+ */
+@Component
+public class NotificationStreamRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationStreamRegistry.class);
+
+    private final ConcurrentHashMap<Integer, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor dispatcher;
+    // Heartbeats and the write watchdog only enqueue or close, but they must not wait behind the
+    // shared @Scheduled pool's batch jobs.
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "notification-stream-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final long heartbeatMillis;
+    private final long writeTimeoutMillis;
+    private final long timeoutMillis;
+    private final int bufferSize;
+    private final int maxConnectionsPerUser;
+
+    public NotificationStreamRegistry(
+            @Value("${app.notifications.stream.timeout-ms:1800000}") long timeoutMillis,
+            @Value("${app.notifications.stream.buffer-size:100}") int bufferSize,
+            @Value("${app.notifications.stream.max-connections-per-user:5}") int maxConnectionsPerUser,
+            @Value("${app.notifications.stream.dispatch-threads:16}") int dispatchThreads,
+            @Value("${app.notifications.stream.heartbeat-ms:15000}") long heartbeatMillis,
+            @Value("${app.notifications.stream.write-timeout-ms:10000}") long writeTimeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        this.heartbeatMillis = heartbeatMillis;
+        this.writeTimeoutMillis = writeTimeoutMillis;
+        this.bufferSize = bufferSize;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+        AtomicInteger threadCount = new AtomicInteger();
+        // Threads are started on demand up to dispatchThreads and retire when idle.
+        this.dispatcher = new ThreadPoolExecutor(dispatchThreads, dispatchThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "notification-stream-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.dispatcher.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Opens a stream for the user. Live events published before {@link Subscription#replay} is
+     * called are held back and sent after the replayed ones, minus any the replay already covered.
+     */
+    public Subscription subscribe(Integer userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        // Added inside compute: remove() drops the entry once its set is empty, and an add after
+        // computeIfAbsent returned could land in a set that is no longer in the map.
+        Set<Subscriber> userSubscribers = subscribers.compute(userId, (id, existing) -> {
+            Set<Subscriber> set = existing != null ? existing : new CopyOnWriteArraySet<>();
+            set.add(subscriber);
+            return set;
+        });
+
+        // Too many tabs: the oldest connection goes, the browser reconnects it with Last-Event-ID.
+        if (userSubscribers.size() > maxConnectionsPerUser) {
+            Iterator<Subscriber> oldest = userSubscribers.iterator();
+            if (oldest.hasNext()) {
+                oldest.next().close();
+            }
+        }
+
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(ex -> remove(subscriber));
+        return subscriber;
+    }
+
+    public boolean isConnected(Integer userId) {
+        Set<Subscriber> userSubscribers = subscribers.get(userId);
+        return userSubscribers != null && !userSubscribers.isEmpty();
+    }
+
+    /** Pushes the notification to the user's open streams once the current transaction commits. */
+    public void publish(Integer userId, NotificationDTO notification) {
+        if (!isConnected(userId)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deliver(userId, notification);
+                }
+            });
+        } else {
+            deliver(userId, notification);
+        }
+    }
+
+    @PostConstruct
+    public void startHeartbeat() {
+        heartbeats.scheduleWithFixedDelay(() -> {
+            try {
+                heartbeat();
+            } catch (RuntimeException ex) {
+                log.error("Notification stream heartbeat failed", ex);
+            }
+        }, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        long watchdogMillis = Math.max(1000, writeTimeoutMillis / 2);
+        heartbeats.scheduleWithFixedDelay(() -> {
+            try {
+                closeStuck();
+            } catch (RuntimeException ex) {
+                log.error("Notification stream watchdog failed", ex);
+            }
+        }, watchdogMillis, watchdogMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Closes connections whose current send has been blocked past the write timeout. Their
+    // dispatcher thread is released once the container gives up on the socket; until then it
+    // is one thread of the pool, not all of them.
+    void closeStuck() {
+        long now = System.currentTimeMillis();
+        for (Set<Subscriber> userSubscribers : subscribers.values()) {
+            for (Subscriber subscriber : userSubscribers) {
+                long since = subscriber.sendingSince;
+                if (since != 0 && now - since > writeTimeoutMillis) {
+                    log.debug("Closing notification stream of user {}: send blocked for {} ms",
+                            subscriber.userId, now - since);
+                    subscriber.close();
+                }
+            }
+        }
+    }
+
+    // Keeps proxies and load balancers from closing idle streams.
+    public void heartbeat() {
+        for (Set<Subscriber> userSubscribers : subscribers.values()) {
+            for (Subscriber subscriber : userSubscribers) {
+                subscriber.enqueueHeartbeat();
+            }
+        }
+    }
+
+    public int connectionCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Set<Subscriber> userSubscribers : subscribers.values()) {
+            userSubscribers.forEach(Subscriber::close);
+        }
+        heartbeats.shutdownNow();
+        dispatcher.shutdownNow();
+    }
+
+    private void deliver(Integer userId, NotificationDTO notification) {
+        Set<Subscriber> userSubscribers = subscribers.get(userId);
+        if (userSubscribers != null) {
+            userSubscribers.forEach(subscriber -> subscriber.enqueue(notification));
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, userSubscribers) -> {
+            userSubscribers.remove(subscriber);
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+    }
+
+    public interface Subscription {
+        SseEmitter getEmitter();
+
+        /** Sends the notifications missed since {@code Last-Event-ID} (oldest first), then goes live. */
+        void replay(List<NotificationDTO> missed);
+    }
+
+    private final class Subscriber implements Subscription {
+        private final Integer userId;
+        private final SseEmitter emitter;
+        // Guarded by this. Null entries are heartbeats.
+        private final ArrayDeque<NotificationDTO> buffer = new ArrayDeque<>();
+        private List<NotificationDTO> heldDuringReplay = new ArrayList<>();
+        private boolean draining;
+        private boolean closed;
+        private long dropped;
+        // Start of the send in progress, 0 while none is; read by the watchdog.
+        private volatile long sendingSince;
+
+        Subscriber(Integer userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        @Override
+        public SseEmitter getEmitter() {
+            return emitter;
+        }
+
+        @Override
+        public void replay(List<NotificationDTO> missed) {
+            synchronized (this) {
+                long lastReplayedId = Long.MIN_VALUE;
+                for (NotificationDTO notification : missed) {
+                    offer(notification);
+                    lastReplayedId = Math.max(lastReplayedId, notification.getId());
+                }
+                for (NotificationDTO notification : heldDuringReplay) {
+                    if (notification.getId() == null || notification.getId() > lastReplayedId) {
+                        offer(notification);
+                    }
+                }
+                heldDuringReplay = null;
+            }
+            scheduleDrain();
+        }
+
+        void enqueue(NotificationDTO notification) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (heldDuringReplay != null) {
+                    heldDuringReplay.add(notification);
+                    return;
+                }
+                offer(notification);
+            }
+            scheduleDrain();
+        }
+
+        void enqueueHeartbeat() {
+            synchronized (this) {
+                // Anything already queued keeps the connection warm just as well.
+                if (closed || !buffer.isEmpty() || heldDuringReplay != null) {
+                    return;
+                }
+                buffer.addLast(null);
+            }
+            scheduleDrain();
+        }
+
+        // Caller holds the lock.
+        private void offer(NotificationDTO notification) {
+            if (buffer.size() >= bufferSize) {
+                buffer.pollFirst();
+                if (++dropped % bufferSize == 1) {
+                    log.debug("Notification stream of user {} is lagging, dropped {} events", userId, dropped);
+                }
+            }
+            buffer.addLast(notification);
+        }
+
+        private void scheduleDrain() {
+            synchronized (this) {
+                if (draining || closed || buffer.isEmpty()) {
+                    return;
+                }
+                draining = true;
+            }
+            dispatcher.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                NotificationDTO next;
+                synchronized (this) {
+                    if (closed || buffer.isEmpty()) {
+                        draining = false;
+                        return;
+                    }
+                    next = buffer.pollFirst();
+                }
+                sendingSince = System.currentTimeMillis();
+                try {
+                    if (next == null) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(next.getId()))
+                                .name("notification")
+                                .data(next, MediaType.APPLICATION_JSON));
+                    }
+                } catch (IOException | IllegalStateException ex) {
+                    // Client went away; the container reports completion and we unregister there too.
+                    close();
+                } finally {
+                    sendingSince = 0;
+                }
+            }
+        }
+
+        void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                buffer.clear();
+            }
+            remove(this);
+            try {
+                emitter.complete();
+            } catch (IllegalStateException ignored) {
+                // Already completed by the container.
+            }
+        }
+    }
+}
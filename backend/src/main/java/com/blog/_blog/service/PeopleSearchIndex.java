@@ -0,0 +1,301 @@
+package com.blog._blog.service;
+
+import com.blog._blog.entity.User;
+import com.blog._blog.repository.UserDeletionJobRepository;
+import com.blog._blog.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory typeahead index over people: first name, last name and email handle. Tokens live in
+ * a sorted map for prefix lookups and every token is also split into trigrams, so substring
+ * queries of three or more characters only verify the intersection of their trigram postings.
+ * Built once at startup and kept current on register, profile update and delete; changes made on
+ * other instances are picked up every {@code app.search.people.reload-interval-ms} from users'
+ * {@code updated_at} and completed deletion jobs.
+ */
+@Component
+@RequiredArgsConstructor
+public class PeopleSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PeopleSearchIndex.class);
+
+    private static final int EXACT_SCORE = 4;
+    private static final int PREFIX_SCORE = 2;
+    private static final int SUBSTRING_SCORE = 1;
+
+    // Each reload re-reads this far behind its watermark, so rows stamped by a skewed clock or
+    // committed after a slow transaction are still picked up. Re-applying a row is harmless.
+    private static final Duration RELOAD_OVERLAP = Duration.ofMinutes(5);
+
+    private final UserRepository userRepository;
+    private final UserDeletionJobRepository userDeletionJobRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, String[]> tokensById = new HashMap<>();
+    private final NavigableMap<String, Set<Integer>> tokenPostings = new TreeMap<>();
+    private final Map<String, Set<Integer>> trigramPostings = new HashMap<>();
+    private volatile boolean ready;
+    private volatile LocalDateTime reloadedUpTo;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        List<Object[]> rows;
+        // Read under the write lock: an upsert or delete committed after the read started waits
+        // and is applied on top of the rebuilt index instead of being wiped by clear().
+        lock.writeLock().lock();
+        try {
+            reloadedUpTo = LocalDateTime.now();
+            rows = userRepository.findSearchFields();
+            tokensById.clear();
+            tokenPostings.clear();
+            trigramPostings.clear();
+            for (Object[] row : rows) {
+                add((Integer) row[0], (String) row[1], (String) row[2], (String) row[3]);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("People search index built with {} users", rows.size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.people.reload-interval-ms:30000}",
+            initialDelayString = "${app.search.people.reload-interval-ms:30000}")
+    @Transactional(readOnly = true)
+    public void reload() {
+        if (!ready) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = reloadedUpTo.minus(RELOAD_OVERLAP);
+        List<Object[]> rows = userRepository.findSearchFieldsUpdatedAfter(since);
+        List<Integer> deletedIds = userDeletionJobRepository.findUserIdsCompletedAfter(since);
+        lock.writeLock().lock();
+        try {
+            for (Object[] row : rows) {
+                remove((Integer) row[0]);
+                add((Integer) row[0], (String) row[1], (String) row[2], (String) row[3]);
+            }
+            for (Integer id : deletedIds) {
+                remove(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        reloadedUpTo = now;
+        log.debug("People search index reloaded {} changed and {} deleted users", rows.size(), deletedIds.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Applied once the surrounding transaction commits, so a rollback never reaches the index.
+    public void upsert(User user) {
+        Integer id = user.getId();
+        String firstname = user.getFirstname();
+        String lastname = user.getLastname();
+        String email = user.getEmail();
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                remove(id);
+                add(id, firstname, lastname, email);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void delete(Integer userId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                remove(userId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Returns up to {@code limit} user ids whose tokens match every whitespace-separated term of
+     * the query, best matches first (exact token, then prefix, then substring).
+     */
+    public List<Integer> search(String query, int limit) {
+        String[] terms = normalize(query).split(" ");
+        Map<Integer, Integer> scores = null;
+
+        lock.readLock().lock();
+        try {
+            for (String term : terms) {
+                if (term.isEmpty()) {
+                    continue;
+                }
+                Map<Integer, Integer> termScores = scoreTerm(term, scores == null ? null : scores.keySet());
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    Map<Integer, Integer> merged = new HashMap<>();
+                    for (Map.Entry<Integer, Integer> entry : termScores.entrySet()) {
+                        merged.put(entry.getKey(), entry.getValue() + scores.get(entry.getKey()));
+                    }
+                    scores = merged;
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (scores == null) {
+            return List.of();
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Integer>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    // Score of each user matching the term, restricted to 'within' when given. Caller holds the read lock.
+    private Map<Integer, Integer> scoreTerm(String term, Set<Integer> within) {
+        Map<Integer, Integer> scores = new HashMap<>();
+
+        for (Map.Entry<String, Set<Integer>> entry : tokenPostings
+                .subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+            int score = entry.getKey().equals(term) ? EXACT_SCORE : PREFIX_SCORE;
+            for (Integer id : entry.getValue()) {
+                if (within == null || within.contains(id)) {
+                    scores.merge(id, score, Math::max);
+                }
+            }
+        }
+
+        if (term.length() >= 3) {
+            for (Integer id : trigramCandidates(term)) {
+                if (scores.containsKey(id) || (within != null && !within.contains(id))) {
+                    continue;
+                }
+                for (String token : tokensById.get(id)) {
+                    if (token.contains(term)) {
+                        scores.put(id, SUBSTRING_SCORE);
+                        break;
+                    }
+                }
+            }
+        }
+        return scores;
+    }
+
+    private Set<Integer> trigramCandidates(String term) {
+        List<Set<Integer>> postings = new ArrayList<>();
+        for (String trigram : trigrams(term)) {
+            Set<Integer> ids = trigramPostings.get(trigram);
+            if (ids == null) {
+                return Set.of();
+            }
+            postings.add(ids);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+        Set<Integer> candidates = new HashSet<>(postings.get(0));
+        for (int i = 1; i < postings.size() && !candidates.isEmpty(); i++) {
+            candidates.retainAll(postings.get(i));
+        }
+        return candidates;
+    }
+
+    // Caller holds the write lock.
+    private void add(Integer id, String firstname, String lastname, String email) {
+        String handle = email != null ? email.split("@")[0] : null;
+        String[] tokens = new String[] { normalize(firstname), normalize(lastname), normalize(handle) };
+        tokensById.put(id, tokens);
+        for (String token : tokens) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            tokenPostings.computeIfAbsent(token, key -> new HashSet<>()).add(id);
+            for (String trigram : trigrams(token)) {
+                trigramPostings.computeIfAbsent(trigram, key -> new HashSet<>()).add(id);
+            }
+        }
+    }
+
+    // Caller holds the write lock.
+    private void remove(Integer id) {
+        String[] tokens = tokensById.remove(id);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            removePosting(tokenPostings, token, id);
+            for (String trigram : trigrams(token)) {
+                removePosting(trigramPostings, trigram, id);
+            }
+        }
+    }
+
+    private static void removePosting(Map<String, Set<Integer>> postings, String key, Integer id) {
+        Set<Integer> ids = postings.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            postings.remove(key);
+        }
+    }
+
+    private static Set<String> trigrams(String token) {
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= token.length(); i++) {
+            trigrams.add(token.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.blog._blog.service;
+
+import com.blog._blog.dto.PlatformActivityDTO;
+import com.blog._blog.entity.Report;
+import com.blog._blog.repository.PostRepository;
+import com.blog._blog.repository.ReportRepository;
+import com.blog._blog.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admin dashboard numbers without scanning tables per request. Totals are {@link LongAdder}s
+ * moved by the service paths that create, delete, ban or resolve things (after their transaction
+ * commits) and re-counted from the database on a slow schedule, which also repairs whatever other
+ * instances did. Per-day creations are buffered the same way and checkpointed into the
+ * {@code daily_stats} rollup, so the activity chart reads at most one row per day.
+ */
+@Component
+@RequiredArgsConstructor
+public class PlatformStats {
+
+    private static final Logger log = LoggerFactory.getLogger(PlatformStats.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final PostRepository postRepository;
+    private final ReportRepository reportRepository;
+
+    private final LongAdder users = new LongAdder();
+    private final LongAdder posts = new LongAdder();
+    private final LongAdder reports = new LongAdder();
+    private final LongAdder bannedUsers = new LongAdder();
+    private final LongAdder pendingReports = new LongAdder();
+    private final AtomicBoolean resyncRequested = new AtomicBoolean();
+
+    // Creations not yet added to daily_stats, by day.
+    private final ConcurrentHashMap<LocalDate, DailyDelta> unflushed = new ConcurrentHashMap<>();
+
+    public void userCreated() {
+        afterCommit(() -> {
+            users.increment();
+            today().users.increment();
+        });
+    }
+
+    public void banChanged(boolean banned) {
+        bansChanged(banned, 1);
+    }
+
+    public void bansChanged(boolean banned, int count) {
+        if (count != 0) {
+            afterCommit(() -> bannedUsers.add(banned ? count : -count));
+        }
+    }
+
+    public void postCreated() {
+        afterCommit(() -> {
+            posts.increment();
+            today().posts.increment();
+        });
+    }
+
+    public void postDeleted() {
+        afterCommit(posts::decrement);
+    }
+
+    public void reportCreated() {
+        afterCommit(() -> {
+            reports.increment();
+            pendingReports.increment();
+            today().reports.increment();
+        });
+    }
+
+    public void reportStatusChanged(Report.ReportStatus from, Report.ReportStatus to) {
+        if (from == to) {
+            return;
+        }
+        afterCommit(() -> {
+            if (from == Report.ReportStatus.PENDING) {
+                pendingReports.decrement();
+            }
+            if (to == Report.ReportStatus.PENDING) {
+                pendingReports.increment();
+            }
+        });
+    }
+
+    // Bulk status change; fromCounts holds how many of the changed reports were in each prior status.
+    public void reportStatusesChanged(Map<Report.ReportStatus, Long> fromCounts, Report.ReportStatus to) {
+        long delta = to == Report.ReportStatus.PENDING
+                ? fromCounts.values().stream().mapToLong(Long::longValue).sum()
+                : -fromCounts.getOrDefault(Report.ReportStatus.PENDING, 0L);
+        if (delta != 0) {
+            afterCommit(() -> pendingReports.add(delta));
+        }
+    }
+
+    // For cascading deletes (a user with their posts and reports) whose effect is not known row by row.
+    public void requestResync() {
+        afterCommit(() -> resyncRequested.set(true));
+    }
+
+    public long totalUsers() {
+        return users.sum();
+    }
+
+    public long totalPosts() {
+        return posts.sum();
+    }
+
+    public long totalReports() {
+        return reports.sum();
+    }
+
+    public long bannedUsers() {
+        return bannedUsers.sum();
+    }
+
+    public long pendingReports() {
+        return pendingReports.sum();
+    }
+
+    /** Posts created per day since {@code from}, days without posts omitted, oldest first. */
+    public List<PlatformActivityDTO> postActivitySince(LocalDate from) {
+        Map<LocalDate, Long> perDay = new TreeMap<>();
+        jdbcTemplate.query("SELECT day, posts_created FROM daily_stats WHERE day >= ? ORDER BY day",
+                (RowCallbackHandler) rs -> perDay.put(rs.getDate("day").toLocalDate(), rs.getLong("posts_created")),
+                Date.valueOf(from));
+        unflushed.forEach((day, delta) -> {
+            if (!day.isBefore(from)) {
+                perDay.merge(day, delta.posts.sum(), Long::sum);
+            }
+        });
+
+        List<PlatformActivityDTO> activity = new ArrayList<>(perDay.size());
+        perDay.forEach((day, count) -> {
+            if (count > 0) {
+                activity.add(PlatformActivityDTO.builder().date(day.toString()).count(count).build());
+            }
+        });
+        return activity;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.stats.resync-interval-ms:600000}",
+            initialDelayString = "${app.stats.resync-interval-ms:600000}")
+    public void resync() {
+        resyncRequested.set(false);
+        set(users, userRepository.count());
+        set(posts, postRepository.count());
+        set(reports, reportRepository.count());
+        set(bannedUsers, userRepository.countByBanned(true));
+        set(pendingReports, reportRepository.countByStatus(Report.ReportStatus.PENDING));
+    }
+
+    @Scheduled(fixedDelayString = "${app.stats.checkpoint-interval-ms:60000}")
+    public void checkpoint() {
+        if (resyncRequested.get()) {
+            resync();
+        }
+        for (Map.Entry<LocalDate, DailyDelta> entry : unflushed.entrySet()) {
+            LocalDate day = entry.getKey();
+            DailyDelta delta = entry.getValue();
+            long postCount = delta.posts.sumThenReset();
+            long userCount = delta.users.sumThenReset();
+            long reportCount = delta.reports.sumThenReset();
+            if (postCount != 0 || userCount != 0 || reportCount != 0) {
+                try {
+                    jdbcTemplate.update("INSERT INTO daily_stats (day, posts_created, users_created, reports_created) "
+                            + "VALUES (?, ?, ?, ?) ON CONFLICT (day) DO UPDATE SET "
+                            + "posts_created = daily_stats.posts_created + EXCLUDED.posts_created, "
+                            + "users_created = daily_stats.users_created + EXCLUDED.users_created, "
+                            + "reports_created = daily_stats.reports_created + EXCLUDED.reports_created",
+                            Date.valueOf(day), postCount, userCount, reportCount);
+                } catch (DataAccessException ex) {
+                    // Put the counts back so the next checkpoint retries them.
+                    delta.posts.add(postCount);
+                    delta.users.add(userCount);
+                    delta.reports.add(reportCount);
+                    log.warn("Daily stats checkpoint for {} failed: {}", day, ex.getMessage());
+                    continue;
+                }
+            }
+            if (day.isBefore(LocalDate.now())) {
+                unflushed.remove(day, delta);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void checkpointOnShutdown() {
+        checkpoint();
+    }
+
+    private DailyDelta today() {
+        return unflushed.computeIfAbsent(LocalDate.now(), day -> new DailyDelta());
+    }
+
+    private static void set(LongAdder adder, long value) {
+        adder.reset();
+        adder.add(value);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class DailyDelta {
+        final LongAdder posts = new LongAdder();
+        final LongAdder users = new LongAdder();
+        final LongAdder reports = new LongAdder();
+    }
+}
@@ -0,0 +1,209 @@
+package com.blog._blog.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Write-behind buffer for post likes. Toggles are coalesced in memory per (post, user) and
+ * flushed every few hundred milliseconds as one set-based INSERT and DELETE on post_likes plus
+ * one counter UPDATE per post, so a burst on a viral post no longer rewrites the join table
+ * through Hibernate on every request.
+ *
+ * <p>An entry stays in the buffer until its write has committed, which keeps the viewer's own
+ * pending state visible (read-your-writes) and means a toggle racing a flush never falls back to
+ * a database read that does not include the in-flight write yet.
+ *
+ * <p>Flushes run on their own thread rather than the shared {@code @Scheduled} pool, so a long
+ * batch job there cannot hold likes back.
+ */
+@Component
+public class PostLikeBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(PostLikeBuffer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long flushIntervalMillis;
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "post-like-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // postId -> userId -> pending state. Mutations go through compute() on the outer map so a
+    // flush never interleaves with a toggle on the same post.
+    private final ConcurrentHashMap<Long, Map<Integer, PendingLike>> pending = new ConcurrentHashMap<>();
+
+    public PostLikeBuffer(JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.likes.flush-interval-ms:250}") long flushIntervalMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (RuntimeException ex) {
+                // An exception escaping here would cancel every later run.
+                log.error("Like flush failed", ex);
+            }
+        }, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Flips the like state of (post, user) and returns the new state. {@code persistedState} is
+     * only consulted when nothing is buffered for the pair yet, and never under a lock.
+     */
+    public boolean toggle(Long postId, Integer userId, BooleanSupplier persistedState) {
+        while (true) {
+            Boolean persisted = pendingState(postId, userId) == null ? persistedState.getAsBoolean() : null;
+            Boolean[] result = new Boolean[1];
+            pending.compute(postId, (id, likes) -> {
+                Map<Integer, PendingLike> map = likes != null ? likes : new ConcurrentHashMap<>();
+                PendingLike existing = map.get(userId);
+                if (existing == null && persisted == null) {
+                    // Flushed and cleaned up since we looked; retry with a fresh database read.
+                    return likes;
+                }
+                PendingLike base = existing != null ? existing : new PendingLike(persisted, persisted);
+                PendingLike next = new PendingLike(!base.liked, base.persisted);
+                map.put(userId, next);
+                result[0] = next.liked;
+                return map;
+            });
+            if (result[0] != null) {
+                return result[0];
+            }
+        }
+    }
+
+    // Buffered like state of the user, or null when the database is authoritative.
+    public Boolean pendingState(Long postId, Integer userId) {
+        Map<Integer, PendingLike> likes = pending.get(postId);
+        PendingLike like = likes != null ? likes.get(userId) : null;
+        return like != null ? like.liked : null;
+    }
+
+    // Net like count change not yet reflected in posts.like_count.
+    public int pendingDelta(Long postId) {
+        Map<Integer, PendingLike> likes = pending.get(postId);
+        if (likes == null) {
+            return 0;
+        }
+        int delta = 0;
+        for (PendingLike like : likes.values()) {
+            delta += (like.liked ? 1 : 0) - (like.persisted ? 1 : 0);
+        }
+        return delta;
+    }
+
+    public synchronized void flush() {
+        for (Long postId : pending.keySet()) {
+            flushPost(postId);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+
+    private void flushPost(Long postId) {
+        List<Integer> toInsert = new ArrayList<>();
+        List<Integer> toDelete = new ArrayList<>();
+
+        // Claim every changed entry by marking it as persisted before the write starts.
+        pending.computeIfPresent(postId, (id, likes) -> {
+            likes.replaceAll((userId, like) -> {
+                if (like.liked == like.persisted) {
+                    return like;
+                }
+                (like.liked ? toInsert : toDelete).add(userId);
+                return new PendingLike(like.liked, like.liked);
+            });
+            return likes;
+        });
+
+        boolean committed = toInsert.isEmpty() && toDelete.isEmpty() || write(postId, toInsert, toDelete);
+
+        pending.computeIfPresent(postId, (id, likes) -> {
+            if (!committed) {
+                // Roll the claim back so the next flush retries these rows.
+                toInsert.forEach(userId -> likes.computeIfPresent(userId,
+                        (key, like) -> new PendingLike(like.liked, false)));
+                toDelete.forEach(userId -> likes.computeIfPresent(userId,
+                        (key, like) -> new PendingLike(like.liked, true)));
+            }
+            likes.values().removeIf(like -> like.liked == like.persisted);
+            return likes.isEmpty() ? null : likes;
+        });
+    }
+
+    private boolean write(Long postId, List<Integer> toInsert, List<Integer> toDelete) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                int delta = 0;
+                if (!toInsert.isEmpty()) {
+                    // Joining posts/_user skips rows whose post or user was deleted meanwhile.
+                    delta += jdbcTemplate.update(
+                            "INSERT INTO post_likes (post_id, user_id) "
+                                    + "SELECT p.id, u.id FROM posts p JOIN _user u ON u.id = ANY (?) "
+                                    + "WHERE p.id = ? ON CONFLICT DO NOTHING",
+                            ps -> {
+                                ps.setArray(1, ps.getConnection().createArrayOf("integer", toInsert.toArray()));
+                                ps.setLong(2, postId);
+                            });
+                }
+                if (!toDelete.isEmpty()) {
+                    delta -= jdbcTemplate.update(
+                            "DELETE FROM post_likes WHERE post_id = ? AND user_id = ANY (?)",
+                            ps -> {
+                                ps.setLong(1, postId);
+                                ps.setArray(2, ps.getConnection().createArrayOf("integer", toDelete.toArray()));
+                            });
+                }
+                if (delta != 0) {
+                    jdbcTemplate.update("UPDATE posts SET like_count = like_count + ? WHERE id = ?", delta, postId);
+                }
+            });
+            return true;
+        } catch (DataAccessException | TransactionException ex) {
+            log.warn("Failed to flush {} buffered likes for post {}: {}",
+                    toInsert.size() + toDelete.size(), postId, ex.getMessage());
+            return false;
+        }
+    }
+
+    private static final class PendingLike {
+        final boolean liked; // State the user asked for
+        final boolean persisted; // State the database has, or will have once the in-flight flush commits
+
+        PendingLike(boolean liked, boolean persisted) {
+            this.liked = liked;
+            this.persisted = persisted;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.blog._blog.service;
+
+import com.blog._blog.dto.CursorPageDTO;
+import com.blog._blog.entity.Post;
+import com.blog._blog.entity.Role;
+import com.blog._blog.entity.User;
+import com.blog._blog.repository.PostRepository;
+import com.blog._blog.util.SearchCursor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Postgres full-text search over posts. {@code posts.search_vector} is a stored generated
+ * tsvector (title weighted A, category B, content C) backed by a GIN index, so matching,
+ * visibility filtering, ranking and the LIMIT all run in one indexed query. The column and index
+ * are created by the V2 migration; the column is not mapped on Post.
+ */
+@Service
+@RequiredArgsConstructor
+public class PostSearchIndex {
+
+    private final PostRepository postRepository;
+
+    @Transactional(readOnly = true)
+    public CursorPageDTO<Post> search(String query, User viewer, String after, int limit) {
+        SearchCursor cursor = SearchCursor.parse(after);
+        Integer viewerId = viewer != null ? viewer.getId() : -1;
+        boolean admin = viewer != null && viewer.getRole() == Role.ADMIN;
+
+        // Fetch one extra row to know whether another page exists.
+        List<Object[]> rows = cursor == null
+                ? postRepository.searchRanked(query, viewerId, admin, limit + 1)
+                : postRepository.searchRankedAfter(query, viewerId, admin, cursor.getRank(), cursor.getId(),
+                        limit + 1);
+        boolean hasNext = rows.size() > limit;
+        List<Object[]> page = hasNext ? rows.subList(0, limit) : rows;
+        if (page.isEmpty()) {
+            return CursorPageDTO.<Post>builder().items(List.of()).build();
+        }
+
+        List<Long> ids = page.stream().map(row -> ((Number) row[0]).longValue()).collect(Collectors.toList());
+        Map<Long, Post> postsById = postRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+        List<Post> posts = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Post post = postsById.get(id);
+            if (post != null) {
+                posts.add(post);
+            }
+        }
+
+        Object[] last = page.get(page.size() - 1);
+        return CursorPageDTO.<Post>builder()
+                .items(posts)
+                .nextCursor(hasNext
+                        ? SearchCursor.encode(((Number) last[1]).floatValue(), ((Number) last[0]).longValue())
+                        : null)
+                .build();
+    }
+}
@@ -1,24 +1,37 @@
 package com.blog._blog.service;
 
+import com.blog._blog.util.FeedCursor;
 import com.blog._blog.util.HtmlSanitizer;
 import com.blog._blog.dto.*;
 import com.blog._blog.entity.Comment;
+import com.blog._blog.entity.OutboxEvent;
 import com.blog._blog.entity.Post;
 import com.blog._blog.entity.User;
 import com.blog._blog.repository.CommentRepository;
+import com.blog._blog.repository.OutboxEventRepository;
 import com.blog._blog.repository.PostRepository;
 import com.blog._blog.repository.UserRepository;
+import com.blog._blog.security.CurrentUserResolver;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import com.blog._blog.entity.NotificationType;
@@ -27,86 +40,91 @@ import com.blog._blog.entity.NotificationType;
 @RequiredArgsConstructor
 public class PostService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final PostRepository postRepository;
     private final CommentRepository commentRepository;
     private final UserRepository userRepository;
+    private final CurrentUserResolver currentUserResolver;
     private final NotificationService notificationService;
     private final com.blog._blog.repository.ReportRepository reportRepository;
+    private final TimelineService timelineService;
+    private final PostLikeBuffer postLikeBuffer;
+    private final OutboxEventRepository outboxEventRepository;
+    private final PlatformStats platformStats;
+    private final ReportCountTracker reportCountTracker;
 
     @Transactional(readOnly = true)
     public List<PostDTO> getAllPosts(String currentUserEmail) {
-        return getAllPosts(currentUserEmail, 0, 100); // Default to first 100 if called without params
+        return getAllPosts(currentUserEmail, 0, 100, null).getItems(); // Default to first 100 if called without params
     }
 
     @Transactional(readOnly = true)
-    public List<PostDTO> getAllPosts(String currentUserEmail, int page, int size) {
-        User currentUser = currentUserEmail != null ? userRepository.findByEmail(currentUserEmail).orElse(null) : null;
-        org.springframework.data.domain.Pageable pageable = org.springframework.data.domain.PageRequest.of(page, size);
+    public CursorPageDTO<PostDTO> getAllPosts(String currentUserEmail, int page, int size, String before) {
+        User currentUser = currentUserEmail != null ? currentUserResolver.findByEmail(currentUserEmail).orElse(null) : null;
+        FeedCursor cursor = FeedCursor.parse(before);
+        // Keyset pages always start at offset 0; the page index only applies to legacy offset paging.
+        Pageable pageable = PageRequest
+                .of(cursor == null ? Math.max(0, page) : 0, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
 
-        org.springframework.data.domain.Page<Post> postsPage;
         if (currentUser != null && currentUser.getRole() == com.blog._blog.entity.Role.ADMIN) {
-            postsPage = postRepository.findAllByOrderByCreatedAtDesc(pageable);
-        } else if (currentUser != null) {
-            Set<Integer> visibleAuthorIds = new HashSet<>();
-            visibleAuthorIds.add(currentUser.getId());
-            if (currentUser.getFollowing() != null) {
-                currentUser.getFollowing().stream()
-                        .map(User::getId)
-                        .filter(id -> id != null)
-                        .forEach(visibleAuthorIds::add);
-            }
-
-            if (visibleAuthorIds.isEmpty()) {
-                postsPage = org.springframework.data.domain.Page.empty(pageable);
-            } else {
-                postsPage = postRepository.findByAuthorIdInAndHiddenFalseOrderByCreatedAtDesc(visibleAuthorIds, pageable);
-            }
-        } else {
-            postsPage = org.springframework.data.domain.Page.empty(pageable);
+            return toPostPage(cursor == null
+                    ? postRepository.findAllByOrderByCreatedAtDescIdDesc(pageable)
+                    : postRepository.findAllBefore(cursor.getCreatedAt(), cursor.getId(), pageable), currentUser);
+        }
+        if (currentUser == null) {
+            return CursorPageDTO.<PostDTO>builder().items(List.of()).build();
         }
 
-        return postsPage.getContent().stream()
-                .map(post -> convertToDTO(post, currentUser))
-                .collect(Collectors.toList());
+        // Own and followed posts are materialized in timeline_entries on write; the timeline
+        // supplies its own cursor since it may filter posts out of a page.
+        CursorPageDTO<Post> timeline = timelineService.getTimeline(currentUser.getId(), cursor, pageable);
+        return CursorPageDTO.<PostDTO>builder()
+                .items(convertToDTOs(timeline.getItems(), currentUser))
+                .nextCursor(timeline.getNextCursor())
+                .build();
     }
 
     @Transactional(readOnly = true)
     public List<PostDTO> getUserPosts(Integer userId, String currentUserEmail) {
-        return getUserPosts(userId, currentUserEmail, 0, 100);
+        return getUserPosts(userId, currentUserEmail, 0, 100, null).getItems();
     }
 
     @Transactional(readOnly = true)
-    public List<PostDTO> getUserPosts(Integer userId, String currentUserEmail, int page, int size) {
-        User currentUser = currentUserEmail != null ? userRepository.findByEmail(currentUserEmail).orElse(null) : null;
+    public CursorPageDTO<PostDTO> getUserPosts(Integer userId, String currentUserEmail, int page, int size,
+            String before) {
+        User currentUser = currentUserEmail != null ? currentUserResolver.findByEmail(currentUserEmail).orElse(null) : null;
         User targetUser = userRepository.findById(userId).orElse(null);
-        org.springframework.data.domain.Pageable pageable = org.springframework.data.domain.PageRequest.of(page, size);
+        FeedCursor cursor = FeedCursor.parse(before);
+        Pageable pageable = PageRequest
+                .of(cursor == null ? Math.max(0, page) : 0, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
 
         boolean isOwner = currentUser != null && currentUser.getId().equals(userId);
         boolean isAdmin = currentUser != null && currentUser.getRole() == com.blog._blog.entity.Role.ADMIN;
         boolean isFollowingTarget = currentUser != null
                 && targetUser != null
-                && currentUser.getFollowing() != null
-                && currentUser.getFollowing().stream()
-                        .map(User::getId)
-                        .anyMatch(id -> id != null && id.equals(userId));
+                && userRepository.existsFollow(currentUser.getId(), userId);
 
-        org.springframework.data.domain.Page<Post> postsPage;
+        Slice<Post> posts;
         if (isOwner || isAdmin) {
-            postsPage = postRepository.findByAuthorIdOrderByCreatedAtDesc(userId, pageable);
+            posts = cursor == null
+                    ? postRepository.findByAuthorIdOrderByCreatedAtDescIdDesc(userId, pageable)
+                    : postRepository.findByAuthorIdBefore(userId, cursor.getCreatedAt(), cursor.getId(), pageable);
         } else if (isFollowingTarget) {
-            postsPage = postRepository.findByAuthorIdAndHiddenFalseOrderByCreatedAtDesc(userId, pageable);
+            posts = cursor == null
+                    ? postRepository.findByAuthorIdAndHiddenFalseOrderByCreatedAtDescIdDesc(userId, pageable)
+                    : postRepository.findVisibleByAuthorIdBefore(userId, cursor.getCreatedAt(), cursor.getId(),
+                            pageable);
         } else {
-            postsPage = org.springframework.data.domain.Page.empty(pageable);
+            posts = new SliceImpl<>(List.of(), pageable, false);
         }
 
-        return postsPage.getContent().stream()
-                .map(post -> convertToDTO(post, currentUser))
-                .collect(Collectors.toList());
+        return toPostPage(posts, currentUser);
     }
 
     @Transactional(readOnly = true)
     public PostDTO getPost(Long id, String currentUserEmail) {
-        User currentUser = currentUserEmail != null ? userRepository.findByEmail(currentUserEmail).orElse(null) : null;
+        User currentUser = currentUserEmail != null ? currentUserResolver.findByEmail(currentUserEmail).orElse(null) : null;
 
         Post post = postRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
@@ -120,7 +138,7 @@ public class PostService {
 
     @Transactional
     public PostDTO createPost(CreatePostRequest request, String email) {
-        User author = userRepository.findByEmail(email)
+        User author = currentUserResolver.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         if (Boolean.TRUE.equals(author.getBanned())) {
@@ -145,16 +163,15 @@ public class PostService {
                 .build();
 
         Post saved = postRepository.save(post);
+        timelineService.publish(saved);
 
-        // Notify all followers (subscribers) when a new post is published.
-        if (author.getFollowers() != null) {
-            author.getFollowers().stream()
-                    .forEach(follower -> notificationService.createNotification(
-                            follower,
-                            author,
-                            NotificationType.NEW_POST,
-                            saved.getId()));
-        }
+        // Followers are notified in the background (NotificationFanOutWorker) once this commits.
+        outboxEventRepository.save(OutboxEvent.builder()
+                .type(OutboxEvent.Type.POST_PUBLISHED)
+                .aggregateId(saved.getId())
+                .actorId(author.getId())
+                .build());
+        platformStats.postCreated();
 
         return convertToDTO(saved, author);
     }
@@ -164,7 +181,7 @@ public class PostService {
         Post post = postRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
 
-        User user = userRepository.findByEmail(email)
+        User user = currentUserResolver.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         if (Boolean.TRUE.equals(user.getBanned())) {
@@ -201,7 +218,7 @@ public class PostService {
         Post post = postRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
 
-        User user = userRepository.findByEmail(email)
+        User user = currentUserResolver.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         if (Boolean.TRUE.equals(user.getBanned()) && user.getRole() != com.blog._blog.entity.Role.ADMIN) {
@@ -213,19 +230,24 @@ public class PostService {
         }
 
         // Delete all reports associated with the post
-        reportRepository.deleteByReportedPostId(post.getId());
+        if (reportRepository.deleteByReportedPostId(post.getId()) > 0) {
+            platformStats.requestResync();
+        }
         notificationService.deleteNotificationsByTypeAndEntity(NotificationType.LIKE, post.getId());
         notificationService.deleteNotificationsByTypeAndEntity(NotificationType.COMMENT, post.getId());
         notificationService.deleteNotificationsByTypeAndEntity(NotificationType.NEW_POST, post.getId());
+        timelineService.retract(post.getId());
 
         postRepository.delete(post);
+        platformStats.postDeleted();
+        reportCountTracker.targetsRemoved();
     }
 
     @Transactional
     public PostDTO toggleHidden(Long postId, String email) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
-        User user = userRepository.findByEmail(email)
+        User user = currentUserResolver.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         if (Boolean.TRUE.equals(user.getBanned())) {
@@ -241,15 +263,54 @@ public class PostService {
 
         post.setHidden(!post.isHidden());
         Post saved = postRepository.save(post);
+        if (saved.isHidden()) {
+            timelineService.retract(saved.getId());
+        } else {
+            timelineService.publish(saved);
+        }
         return convertToDTO(saved, user);
     }
 
+    // Bulk moderation: one UPDATE for the batch and one statement for the affected timelines.
+    @Transactional
+    public int setHidden(Collection<Long> postIds, boolean hidden, String email) {
+        requireAdmin(email);
+        List<Long> changed = postRepository.findIdsWithHiddenNot(postIds, hidden);
+        if (changed.isEmpty()) {
+            return 0;
+        }
+        int updated = postRepository.updateHiddenByIdIn(changed, hidden);
+        if (hidden) {
+            timelineService.retractAll(changed);
+        } else {
+            timelineService.publishAll(changed);
+        }
+        return updated;
+    }
+
+    // Spam cleanup: hides every post of one author.
+    @Transactional
+    public int hideAllOfAuthor(Integer authorId, String email) {
+        requireAdmin(email);
+        int updated = postRepository.hideAllByAuthorId(authorId);
+        timelineService.retractAuthor(authorId);
+        return updated;
+    }
+
+    private void requireAdmin(String email) {
+        User user = currentUserResolver.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (user.getRole() != com.blog._blog.entity.Role.ADMIN) {
+            throw new RuntimeException("Unauthorized");
+        }
+    }
+
     @Transactional
     public PostDTO toggleLike(Long postId, String email) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
 
-        User user = userRepository.findByEmail(email)
+        User user = currentUserResolver.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         if (!canUserViewPost(post, user)) {
@@ -260,16 +321,16 @@ public class PostService {
             throw new RuntimeException("You are banned and cannot like posts");
         }
 
-        if (post.getLikes().contains(user)) {
-            post.getLikes().remove(user);
-            notificationService.deleteNotification(post.getAuthor(), user, NotificationType.LIKE, post.getId());
-        } else {
-            post.getLikes().add(user);
+        // The post_likes row and like_count are written behind by PostLikeBuffer.
+        boolean liked = postLikeBuffer.toggle(post.getId(), user.getId(),
+                () -> postRepository.existsLike(post.getId(), user.getId()));
+        if (liked) {
             notificationService.createNotification(post.getAuthor(), user, NotificationType.LIKE, post.getId());
+        } else {
+            notificationService.deleteNotification(post.getAuthor(), user, NotificationType.LIKE, post.getId());
         }
 
-        Post saved = postRepository.save(post);
-        return convertToDTO(saved, user);
+        return convertToDTO(post, user);
     }
 
     @Transactional
@@ -277,22 +338,23 @@ public class PostService {
         Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new RuntimeException("Comment not found"));
 
-        User user = userRepository.findByEmail(email)
+        User user = currentUserResolver.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         if (Boolean.TRUE.equals(user.getBanned())) {
             throw new RuntimeException("You are banned and cannot like comments");
         }
 
-        if (comment.getLikes().contains(user)) {
-            comment.getLikes().remove(user);
-        } else {
-            comment.getLikes().add(user);
-            // Optionally notify comment author
-        }
+        // Counted by rows actually written, so a concurrent double toggle cannot skew like_count.
+        int delta = commentRepository.existsLike(commentId, user.getId())
+                ? -commentRepository.deleteLike(commentId, user.getId())
+                : commentRepository.insertLike(commentId, user.getId());
 
-        Comment saved = commentRepository.save(comment);
-        return convertToCommentDTO(saved, user);
+        if (delta != 0) {
+            commentRepository.adjustLikeCount(commentId, delta);
+            comment.setLikeCount(comment.getLikeCount() + delta);
+        }
+        return convertToCommentDTO(comment, user);
     }
 
     @Transactional
@@ -300,7 +362,7 @@ public class PostService {
         Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new RuntimeException("Comment not found"));
 
-        User user = userRepository.findByEmail(email)
+        User user = currentUserResolver.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         if (Boolean.TRUE.equals(user.getBanned()) && user.getRole() != com.blog._blog.entity.Role.ADMIN) {
@@ -323,6 +385,9 @@ public class PostService {
                     comment.getPost().getId());
         }
 
+        if (comment.getPost() != null) {
+            postRepository.adjustCommentCount(comment.getPost().getId(), -1);
+        }
         commentRepository.delete(comment);
     }
 
@@ -331,7 +396,7 @@ public class PostService {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
 
-        User user = userRepository.findByEmail(email)
+        User user = currentUserResolver.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         if (!canUserViewPost(post, user)) {
@@ -351,13 +416,14 @@ public class PostService {
                 .build();
 
         Comment saved = commentRepository.save(comment);
+        postRepository.adjustCommentCount(post.getId(), 1);
         notificationService.createNotification(post.getAuthor(), user, NotificationType.COMMENT, post.getId());
         return convertToCommentDTO(saved, user);
     }
 
     @Transactional(readOnly = true)
     public List<CommentDTO> getComments(Long postId, String currentUserEmail) {
-        User currentUser = currentUserEmail != null ? userRepository.findByEmail(currentUserEmail).orElse(null) : null;
+        User currentUser = currentUserEmail != null ? currentUserResolver.findByEmail(currentUserEmail).orElse(null) : null;
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
 
@@ -365,52 +431,160 @@ public class PostService {
             throw new RuntimeException("Post not found");
         }
 
-        return commentRepository.findByPostIdOrderByCreatedAtDesc(postId).stream()
-                .map(comment -> convertToCommentDTO(comment, currentUser))
-                .collect(Collectors.toList());
+        return convertToCommentDTOs(commentRepository.findByPostIdOrderByCreatedAtDesc(postId), currentUser);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDTO<CommentDTO> getComments(Long postId, String currentUserEmail, String before, int size) {
+        User currentUser = currentUserEmail != null ? currentUserResolver.findByEmail(currentUserEmail).orElse(null) : null;
+        Post post = postRepository.findById(postId)
+                .orElseThrow(() -> new RuntimeException("Post not found"));
+
+        if (!canUserViewPost(post, currentUser)) {
+            throw new RuntimeException("Post not found");
+        }
+
+        FeedCursor cursor = FeedCursor.parse(before);
+        Pageable pageable = PageRequest.of(0, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+        Slice<Comment> comments = cursor == null
+                ? commentRepository.findByPostIdOrderByCreatedAtDescIdDesc(postId, pageable)
+                : commentRepository.findByPostIdBefore(postId, cursor.getCreatedAt(), cursor.getId(), pageable);
+
+        List<CommentDTO> items = convertToCommentDTOs(comments.getContent(), currentUser);
+        String nextCursor = null;
+        if (comments.hasNext() && !items.isEmpty()) {
+            Comment last = comments.getContent().get(comments.getContent().size() - 1);
+            nextCursor = FeedCursor.encode(last.getCreatedAt(), last.getId());
+        }
+        return CursorPageDTO.<CommentDTO>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private CursorPageDTO<PostDTO> toPostPage(Slice<Post> posts, User currentUser) {
+        List<PostDTO> items = convertToDTOs(posts.getContent(), currentUser);
+        String nextCursor = null;
+        if (posts.hasNext() && !items.isEmpty()) {
+            Post last = posts.getContent().get(posts.getContent().size() - 1);
+            nextCursor = FeedCursor.encode(last.getCreatedAt(), last.getId());
+        }
+        return CursorPageDTO.<PostDTO>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .build();
     }
 
     public PostDTO convertToDTO(Post post, User currentUser) {
-        boolean isOwner = currentUser != null && post.getAuthor().getId().equals(currentUser.getId());
+        return convertToDTOs(List.of(post), currentUser).get(0);
+    }
+
+    /**
+     * Hydrates a list of posts with a constant number of grouped queries (authors, images,
+     * report counts and the viewer's liked set) instead of lazy loads per post. Like and
+     * comment counts come from the denormalized counters on the post row, overlaid with
+     * likes still sitting in the write-behind buffer.
+     */
+    public List<PostDTO> convertToDTOs(List<Post> posts, User currentUser) {
+        if (posts.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> postIds = posts.stream().map(Post::getId).collect(Collectors.toList());
+        Set<Integer> authorIds = posts.stream().map(post -> post.getAuthor().getId()).collect(Collectors.toSet());
+
+        Map<Integer, User> authorsById = userRepository.findAllById(authorIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<Long, Long> reportCounts = toCountMap(reportRepository.countByReportedPostIds(postIds));
+        Set<Long> likedPostIds = currentUser != null
+                ? new HashSet<>(postRepository.findLikedPostIds(postIds, currentUser.getId()))
+                : Set.of();
+        Map<Long, List<String>> imagesByPostId = new HashMap<>();
+        for (Object[] row : postRepository.findImagesByPostIds(postIds)) {
+            imagesByPostId.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+
         boolean isAdmin = currentUser != null && currentUser.getRole() == com.blog._blog.entity.Role.ADMIN;
 
-        return PostDTO.builder()
-                .id(post.getId())
-                .user(convertToUserSummary(post.getAuthor()))
-                .time(formatTimeAgo(post.getCreatedAt()))
-                .readTime(post.getReadTime())
-                .title(post.getTitle())
-                .content(post.getContent())
-                .images(post.getImages())
-                .category(post.getCategory())
-                .likes(post.getLikes().size())
-                .comments(post.getComments().size())
-                .tags(post.getTags())
-                .isLiked(currentUser != null && post.getLikes().contains(currentUser))
-                .canEdit(isOwner)
-                .canDelete(isOwner || isAdmin)
-                .reportsCount((int) reportRepository.countByReportedPostId(post.getId()))
-                .hidden(post.isHidden())
-                .createdAt(post.getCreatedAt())
-                .build();
+        return posts.stream()
+                .map(post -> {
+                    User author = authorsById.getOrDefault(post.getAuthor().getId(), post.getAuthor());
+                    boolean isOwner = currentUser != null && author.getId().equals(currentUser.getId());
+                    Boolean pendingLike = currentUser != null
+                            ? postLikeBuffer.pendingState(post.getId(), currentUser.getId())
+                            : null;
+
+                    return PostDTO.builder()
+                            .id(post.getId())
+                            .user(convertToUserSummary(author))
+                            .time(formatTimeAgo(post.getCreatedAt()))
+                            .readTime(post.getReadTime())
+                            .title(post.getTitle())
+                            .content(post.getContent())
+                            .images(imagesByPostId.getOrDefault(post.getId(), new ArrayList<>()))
+                            .category(post.getCategory())
+                            .likes(post.getLikeCount() + postLikeBuffer.pendingDelta(post.getId()))
+                            .comments(post.getCommentCount())
+                            .tags(post.getTags())
+                            .isLiked(pendingLike != null ? pendingLike : likedPostIds.contains(post.getId()))
+                            .canEdit(isOwner)
+                            .canDelete(isOwner || isAdmin)
+                            .reportsCount(reportCounts.getOrDefault(post.getId(), 0L).intValue())
+                            .hidden(post.isHidden())
+                            .createdAt(post.getCreatedAt())
+                            .build();
+                })
+                .collect(Collectors.toList());
     }
 
     private CommentDTO convertToCommentDTO(Comment comment, User currentUser) {
-        boolean isOwner = currentUser != null && comment.getAuthor().getId().equals(currentUser.getId());
-        boolean isPostOwner = currentUser != null && comment.getPost() != null
-                && comment.getPost().getAuthor().getId().equals(currentUser.getId());
+        return convertToCommentDTOs(List.of(comment), currentUser).get(0);
+    }
+
+    private List<CommentDTO> convertToCommentDTOs(List<Comment> comments, User currentUser) {
+        if (comments.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> commentIds = comments.stream().map(Comment::getId).collect(Collectors.toList());
+        Set<Integer> authorIds = comments.stream().map(comment -> comment.getAuthor().getId())
+                .collect(Collectors.toSet());
+
+        Map<Integer, User> authorsById = userRepository.findAllById(authorIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Set<Long> likedCommentIds = currentUser != null
+                ? new HashSet<>(commentRepository.findLikedCommentIds(commentIds, currentUser.getId()))
+                : Set.of();
+
         boolean isAdmin = currentUser != null && currentUser.getRole() == com.blog._blog.entity.Role.ADMIN;
 
-        return CommentDTO.builder()
-                .id(comment.getId())
-                .user(convertToUserSummary(comment.getAuthor()))
-                .content(comment.getContent())
-                .time(formatTimeAgo(comment.getCreatedAt()))
-                .likes(comment.getLikes().size())
-                .isLiked(currentUser != null && comment.getLikes().contains(currentUser))
-                .canDelete(isOwner || isPostOwner || isAdmin)
-                .createdAt(comment.getCreatedAt())
-                .build();
+        return comments.stream()
+                .map(comment -> {
+                    User author = authorsById.getOrDefault(comment.getAuthor().getId(), comment.getAuthor());
+                    boolean isOwner = currentUser != null && author.getId().equals(currentUser.getId());
+                    boolean isPostOwner = currentUser != null && comment.getPost() != null
+                            && comment.getPost().getAuthor().getId().equals(currentUser.getId());
+
+                    return CommentDTO.builder()
+                            .id(comment.getId())
+                            .user(convertToUserSummary(author))
+                            .content(comment.getContent())
+                            .time(formatTimeAgo(comment.getCreatedAt()))
+                            .likes(comment.getLikeCount())
+                            .isLiked(likedCommentIds.contains(comment.getId()))
+                            .canDelete(isOwner || isPostOwner || isAdmin)
+                            .createdAt(comment.getCreatedAt())
+                            .build();
+                })
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, Long> toCountMap(List<Object[]> rows) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            counts.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+        }
+        return counts;
     }
 
     private UserSummaryDTO convertToUserSummary(User user) {
@@ -428,13 +602,10 @@ public class PostService {
         if (user.getRole() == com.blog._blog.entity.Role.ADMIN) return true;
         if (post.getAuthor() != null && post.getAuthor().getId().equals(user.getId())) return true;
         if (post.isHidden()) return false;
-        if (user.getFollowing() == null || post.getAuthor() == null || post.getAuthor().getId() == null) {
+        if (post.getAuthor() == null || post.getAuthor().getId() == null) {
             return false;
         }
-        Integer authorId = post.getAuthor().getId();
-        return user.getFollowing().stream()
-                .map(User::getId)
-                .anyMatch(id -> id != null && id.equals(authorId));
+        return userRepository.existsFollow(user.getId(), post.getAuthor().getId());
     }
 
     private String sanitizeRequiredText(String value, String fieldName, int minLen, int maxLen) {
@@ -0,0 +1,216 @@
+package com.blog._blog.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Most reported users and posts without grouping the reports table. Exact per-target counts live
+ * in {@code user_report_counts} / {@code post_report_counts} (indexed by count), moved by one
+ * upsert per report; rows disappear with their user or post through ON DELETE CASCADE.
+ *
+ * <p>In memory each kind keeps the top {@code app.reports.top-k} targets. A new count can only
+ * push its target up, so increments are applied in place; anything that lowers or removes counts
+ * marks the structure stale and it is reloaded from the count index (K rows) on the next read.
+ * A periodic reload picks up reports taken by other instances.
+ */
+@Component
+public class ReportCountTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportCountTracker.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TopK<Integer> users;
+    private final TopK<Long> posts;
+
+    public ReportCountTracker(JdbcTemplate jdbcTemplate, @Value("${app.reports.top-k:50}") int capacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.users = new TopK<>(capacity);
+        this.posts = new TopK<>(capacity);
+    }
+
+    // Called in the report's transaction, so the count commits (or not) with the report.
+    public void userReported(Integer userId) {
+        Long count = jdbcTemplate.queryForObject("INSERT INTO user_report_counts (user_id, report_count) VALUES (?, 1) "
+                + "ON CONFLICT (user_id) DO UPDATE SET report_count = user_report_counts.report_count + 1 "
+                + "RETURNING report_count", Long.class, userId);
+        afterCommit(() -> users.offer(userId, count));
+    }
+
+    public void postReported(Long postId) {
+        Long count = jdbcTemplate.queryForObject("INSERT INTO post_report_counts (post_id, report_count) VALUES (?, 1) "
+                + "ON CONFLICT (post_id) DO UPDATE SET report_count = post_report_counts.report_count + 1 "
+                + "RETURNING report_count", Long.class, postId);
+        afterCommit(() -> posts.offer(postId, count));
+    }
+
+    /** Takes back the counts of every report filed by the user; call before those reports are deleted. */
+    public void reporterRemoved(Integer reporterId) {
+        jdbcTemplate.update("UPDATE user_report_counts c SET report_count = c.report_count - s.cnt "
+                + "FROM (SELECT reported_user_id, COUNT(*) AS cnt FROM reports "
+                + "WHERE reporter_id = ? AND reported_user_id IS NOT NULL GROUP BY reported_user_id) s "
+                + "WHERE c.user_id = s.reported_user_id", reporterId);
+        jdbcTemplate.update("UPDATE post_report_counts c SET report_count = c.report_count - s.cnt "
+                + "FROM (SELECT reported_post_id, COUNT(*) AS cnt FROM reports "
+                + "WHERE reporter_id = ? AND reported_post_id IS NOT NULL GROUP BY reported_post_id) s "
+                + "WHERE c.post_id = s.reported_post_id", reporterId);
+        jdbcTemplate.update("DELETE FROM user_report_counts WHERE report_count <= 0");
+        jdbcTemplate.update("DELETE FROM post_report_counts WHERE report_count <= 0");
+        afterCommit(this::invalidate);
+    }
+
+    // A reported user or post is going away; its count row goes with it by cascade.
+    public void targetsRemoved() {
+        afterCommit(this::invalidate);
+    }
+
+    public List<Entry<Integer>> topUsers(int n) {
+        if (users.isStale()) {
+            users.load(jdbcTemplate.query("SELECT user_id, report_count FROM user_report_counts "
+                    + "ORDER BY report_count DESC, user_id LIMIT ?",
+                    (rs, rowNum) -> new Entry<>(rs.getInt(1), rs.getLong(2)), users.capacity));
+        }
+        return users.top(n);
+    }
+
+    public List<Entry<Long>> topPosts(int n) {
+        if (posts.isStale()) {
+            posts.load(jdbcTemplate.query("SELECT post_id, report_count FROM post_report_counts "
+                    + "ORDER BY report_count DESC, post_id LIMIT ?",
+                    (rs, rowNum) -> new Entry<>(rs.getLong(1), rs.getLong(2)), posts.capacity));
+        }
+        return posts.top(n);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.reports.top-k-reload-interval-ms:60000}",
+            initialDelayString = "${app.reports.top-k-reload-interval-ms:60000}")
+    public void invalidate() {
+        users.markStale();
+        posts.markStale();
+    }
+
+    /** Recomputes both count tables from the reports themselves. Recovery only: it scans every report. */
+    @Transactional
+    public int rebuild() {
+        jdbcTemplate.execute("LOCK TABLE user_report_counts, post_report_counts IN EXCLUSIVE MODE");
+        jdbcTemplate.update("DELETE FROM user_report_counts");
+        jdbcTemplate.update("DELETE FROM post_report_counts");
+        int rows = jdbcTemplate.update("INSERT INTO user_report_counts (user_id, report_count) "
+                + "SELECT reported_user_id, COUNT(*) FROM reports WHERE reported_user_id IS NOT NULL "
+                + "GROUP BY reported_user_id");
+        rows += jdbcTemplate.update("INSERT INTO post_report_counts (post_id, report_count) "
+                + "SELECT reported_post_id, COUNT(*) FROM reports WHERE reported_post_id IS NOT NULL "
+                + "GROUP BY reported_post_id");
+        afterCommit(this::invalidate);
+        log.info("Rebuilt report counts ({} targets)", rows);
+        return rows;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    public static final class Entry<K> {
+        private final K id;
+        private final long count;
+
+        Entry(K id, long count) {
+            this.id = id;
+            this.count = count;
+        }
+
+        public K getId() {
+            return id;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+
+    /** The K highest counts, ordered by count descending then id. All methods lock the instance. */
+    private static final class TopK<K extends Comparable<K>> {
+        private final int capacity;
+        private final Map<K, Long> counts = new HashMap<>();
+        private final TreeSet<Entry<K>> ranked = new TreeSet<>(Comparator
+                .comparingLong((Entry<K> entry) -> entry.count).reversed()
+                .thenComparing(entry -> entry.id));
+        private boolean stale = true;
+
+        TopK(int capacity) {
+            this.capacity = capacity;
+        }
+
+        synchronized boolean isStale() {
+            return stale;
+        }
+
+        synchronized void markStale() {
+            stale = true;
+        }
+
+        synchronized void load(List<Entry<K>> entries) {
+            counts.clear();
+            ranked.clear();
+            for (Entry<K> entry : entries) {
+                counts.put(entry.id, entry.count);
+                ranked.add(entry);
+            }
+            stale = false;
+        }
+
+        synchronized void offer(K id, long count) {
+            if (stale) {
+                return; // The next read reloads from the table, which already has this count.
+            }
+            Long previous = counts.remove(id);
+            if (previous != null) {
+                ranked.remove(new Entry<>(id, previous));
+            } else if (ranked.size() >= capacity && count <= ranked.last().count) {
+                return;
+            }
+            counts.put(id, count);
+            ranked.add(new Entry<>(id, count));
+            if (ranked.size() > capacity) {
+                Entry<K> evicted = ranked.pollLast();
+                counts.remove(evicted.id);
+            }
+        }
+
+        synchronized List<Entry<K>> top(int n) {
+            List<Entry<K>> result = new ArrayList<>(Math.min(n, ranked.size()));
+            for (Entry<K> entry : ranked) {
+                if (result.size() >= n) {
+                    break;
+                }
+                result.add(entry);
+            }
+            return result;
+        }
+    }
+}
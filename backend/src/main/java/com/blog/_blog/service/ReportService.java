@@ -1,6 +1,7 @@
 package com.blog._blog.service;
 
 import com.blog._blog.dto.CreateReportRequest;
+import com.blog._blog.dto.CursorPageDTO;
 import com.blog._blog.dto.ReportDTO;
 import com.blog._blog.dto.UserSummaryDTO;
 import com.blog._blog.entity.Post;
@@ -10,23 +11,40 @@ import com.blog._blog.exception.DuplicateReportException;
 import com.blog._blog.repository.PostRepository;
 import com.blog._blog.repository.ReportRepository;
 import com.blog._blog.repository.UserRepository;
+import com.blog._blog.security.CurrentUserResolver;
+import com.blog._blog.util.FeedCursor;
 import com.blog._blog.util.HtmlSanitizer;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ReportService {
 
+    private static final int MAX_QUEUE_PAGE_SIZE = 100;
+
     private final ReportRepository reportRepository;
     private final UserRepository userRepository;
+    private final CurrentUserResolver currentUserResolver;
     private final PostRepository postRepository;
+    private final PlatformStats platformStats;
+    private final ReportCountTracker reportCountTracker;
 
+    @Transactional
     public ReportDTO createReport(CreateReportRequest request, String reporterEmail) {
-        User reporter = userRepository.findByEmail(reporterEmail).orElseThrow();
+        User reporter = currentUserResolver.findByEmail(reporterEmail).orElseThrow();
         if (Boolean.TRUE.equals(reporter.getBanned())) {
             throw new IllegalArgumentException("Banned users cannot create reports");
         }
@@ -73,31 +91,107 @@ public class ReportService {
         }
 
         Report savedReport = reportRepository.save(report);
+        platformStats.reportCreated();
+        if (savedReport.getReportedUser() != null) {
+            reportCountTracker.userReported(savedReport.getReportedUser().getId());
+        } else {
+            reportCountTracker.postReported(savedReport.getReportedPost().getId());
+        }
         return convertToDTO(savedReport);
     }
 
-    public List<ReportDTO> getAllReports(String requesterEmail) {
+    // The whole queue, for clients that do not page.
+    @Transactional(readOnly = true)
+    public List<ReportDTO> getModerationQueue(String requesterEmail, Report.ReportStatus status,
+            Report.TargetType type) {
+        checkAdmin(requesterEmail);
+        return moderationQueue(status, type, null, Pageable.unpaged()).getItems();
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ReportDTO> getModerationQueue(String requesterEmail, Report.ReportStatus status,
+            Report.TargetType type, String before, int size) {
         checkAdmin(requesterEmail);
-        return reportRepository.findAll().stream()
-                .map(this::convertToDTO)
+        int pageSize = Math.max(1, Math.min(size, MAX_QUEUE_PAGE_SIZE));
+        return moderationQueue(status, type, FeedCursor.parse(before), PageRequest.of(0, pageSize));
+    }
+
+    private CursorPageDTO<ReportDTO> moderationQueue(Report.ReportStatus status, Report.TargetType type,
+            FeedCursor cursor, Pageable pageable) {
+        Collection<Report.ReportStatus> statuses = status != null
+                ? List.of(status)
+                : EnumSet.allOf(Report.ReportStatus.class);
+        boolean userReports = type == null || type == Report.TargetType.USER;
+        boolean postReports = type == null || type == Report.TargetType.POST;
+
+        Slice<Report> reports = cursor == null
+                ? reportRepository.findQueue(statuses, userReports, postReports, pageable)
+                : reportRepository.findQueueBefore(statuses, userReports, postReports,
+                        cursor.getCreatedAt(), cursor.getId(), pageable);
+
+        // The one collection the DTO needs, loaded for the whole page at once.
+        List<Long> postIds = reports.getContent().stream()
+                .filter(report -> report.getReportedPost() != null)
+                .map(report -> report.getReportedPost().getId())
+                .distinct()
                 .collect(Collectors.toList());
+        Map<Long, String> firstImageByPostId = new HashMap<>();
+        if (!postIds.isEmpty()) {
+            for (Object[] row : postRepository.findImagesByPostIds(postIds)) {
+                firstImageByPostId.putIfAbsent((Long) row[0], (String) row[1]);
+            }
+        }
+
+        List<ReportDTO> items = reports.getContent().stream()
+                .map(report -> convertToDTO(report, report.getReportedPost() != null
+                        ? firstImageByPostId.get(report.getReportedPost().getId())
+                        : null))
+                .collect(Collectors.toList());
+        String nextCursor = null;
+        if (reports.hasNext() && !items.isEmpty()) {
+            Report last = reports.getContent().get(reports.getContent().size() - 1);
+            nextCursor = FeedCursor.encode(last.getCreatedAt(), last.getId());
+        }
+        return CursorPageDTO.<ReportDTO>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .build();
     }
 
     public ReportDTO updateStatus(Long id, Report.ReportStatus status, String requesterEmail) {
         checkAdmin(requesterEmail);
         Report report = reportRepository.findById(id).orElseThrow();
+        platformStats.reportStatusChanged(report.getStatus(), status);
         report.setStatus(status);
         return convertToDTO(reportRepository.save(report));
     }
 
+    // Resolves/dismisses a batch in one UPDATE; returns how many reports actually changed status.
+    @Transactional
+    public int updateStatuses(Collection<Long> ids, Report.ReportStatus status, String requesterEmail) {
+        checkAdmin(requesterEmail);
+        Map<Report.ReportStatus, Long> fromCounts = new EnumMap<>(Report.ReportStatus.class);
+        for (Object[] row : reportRepository.countStatusesToChange(ids, status)) {
+            fromCounts.put((Report.ReportStatus) row[0], (Long) row[1]);
+        }
+        int updated = reportRepository.updateStatusByIdIn(ids, status);
+        platformStats.reportStatusesChanged(fromCounts, status);
+        return updated;
+    }
+
     private void checkAdmin(String email) {
-        User user = userRepository.findByEmail(email).orElseThrow(() -> new RuntimeException("User not found"));
+        User user = currentUserResolver.findByEmail(email).orElseThrow(() -> new RuntimeException("User not found"));
         if (user.getRole() != com.blog._blog.entity.Role.ADMIN) {
             throw new RuntimeException("Unauthorized");
         }
     }
 
     private ReportDTO convertToDTO(Report report) {
+        Post post = report.getReportedPost();
+        return convertToDTO(report, post != null && !post.getImages().isEmpty() ? post.getImages().get(0) : null);
+    }
+
+    private ReportDTO convertToDTO(Report report, String reportedPostImage) {
         return ReportDTO.builder()
                 .id(report.getId())
                 .reason(report.getReason())
@@ -105,9 +199,7 @@ public class ReportService {
                 .reportedUser(report.getReportedUser() != null ? mapToUserSummary(report.getReportedUser()) : null)
                 .reportedPostId(report.getReportedPost() != null ? report.getReportedPost().getId() : null)
                 .reportedPostTitle(report.getReportedPost() != null ? report.getReportedPost().getTitle() : null)
-                .reportedPostImage(report.getReportedPost() != null && !report.getReportedPost().getImages().isEmpty()
-                        ? report.getReportedPost().getImages().get(0)
-                        : null)
+                .reportedPostImage(reportedPostImage)
                 .reportedPostAuthor(
                         report.getReportedPost() != null ? mapToUserSummary(report.getReportedPost().getAuthor())
                                 : null)
@@ -1,11 +1,12 @@
 package com.blog._blog.service;
 
+import com.blog._blog.dto.CursorPageDTO;
 import com.blog._blog.dto.PostDTO;
 import com.blog._blog.dto.UserDTO;
 import com.blog._blog.entity.Post;
 import com.blog._blog.entity.User;
-import com.blog._blog.repository.PostRepository;
 import com.blog._blog.repository.UserRepository;
+import com.blog._blog.security.CurrentUserResolver;
 import com.blog._blog.util.HtmlSanitizer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -18,64 +19,71 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class SearchService {
 
-    private final PostRepository postRepository;
+    private static final int MAX_LIMIT = 50;
+
+    private final PostSearchIndex postSearchIndex;
+    private final PeopleSearchIndex peopleSearchIndex;
     private final UserRepository userRepository;
+    private final CurrentUserResolver currentUserResolver;
     private final PostService postService;
     private final UserService userService;
 
+    // 'after' is the postsNextCursor of a previous response and continues the ranked post results.
     @Transactional(readOnly = true)
-    public Map<String, Object> search(String query, String filter, int limit, String currentUserEmail) {
+    public Map<String, Object> search(String query, String filter, int limit, String after, String currentUserEmail) {
         Map<String, Object> results = new HashMap<>();
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
         String sanitizedQuery = HtmlSanitizer.sanitizeAndTrimText(query);
         if (sanitizedQuery == null || sanitizedQuery.isEmpty()) {
             return results;
         }
 
-        User currentUser = currentUserEmail != null ? userRepository.findByEmail(currentUserEmail).orElse(null) : null;
+        User currentUser = currentUserEmail != null ? currentUserResolver.findByEmail(currentUserEmail).orElse(null) : null;
 
         switch (filter.toLowerCase()) {
             case "posts":
-                List<PostDTO> posts = searchPosts(sanitizedQuery, limit, currentUser);
-                results.put("posts", posts);
+                putPosts(results, sanitizedQuery, pageSize, after, currentUser);
                 break;
             case "people":
-                List<UserDTO> users = searchUsers(sanitizedQuery, limit, currentUser);
+                List<UserDTO> users = searchUsers(sanitizedQuery, pageSize, currentUser);
                 results.put("users", users);
                 break;
             case "all":
             default:
-                results.put("posts", searchPosts(sanitizedQuery, limit, currentUser));
-                results.put("users", searchUsers(sanitizedQuery, limit, currentUser));
+                putPosts(results, sanitizedQuery, pageSize, after, currentUser);
+                results.put("users", searchUsers(sanitizedQuery, pageSize, currentUser));
                 break;
         }
 
         return results;
     }
 
-    private List<PostDTO> searchPosts(String query, int limit, User currentUser) {
-        List<Post> posts = postRepository.searchByTitleOrCategory(query.toLowerCase());
-        return posts.stream()
-                .filter(post -> {
-                    if (!post.isHidden()) {
-                        return true;
-                    }
-                    if (currentUser == null) {
-                        return false;
-                    }
-                    boolean isAdmin = currentUser.getRole() == com.blog._blog.entity.Role.ADMIN;
-                    boolean isOwner = post.getAuthor() != null && post.getAuthor().getId().equals(currentUser.getId());
-                    return isAdmin || isOwner;
-                })
-                .limit(limit)
-                .map(post -> postService.convertToDTO(post, currentUser))
-                .collect(Collectors.toList());
+    private void putPosts(Map<String, Object> results, String query, int limit, String after, User currentUser) {
+        CursorPageDTO<Post> page = postSearchIndex.search(query, currentUser, after, limit);
+        List<PostDTO> posts = postService.convertToDTOs(page.getItems(), currentUser);
+        results.put("posts", posts);
+        if (page.getNextCursor() != null) {
+            results.put("postsNextCursor", page.getNextCursor());
+        }
     }
 
     private List<UserDTO> searchUsers(String query, int limit, User currentUser) {
-        List<User> users = userRepository.searchByNameOrEmail(query.toLowerCase());
-        return users.stream()
-                .limit(limit)
-                .map(user -> userService.convertToDTO(user, currentUser))
+        if (!peopleSearchIndex.isReady()) {
+            // Only until the startup build finishes.
+            List<User> users = userRepository.searchByNameOrEmail(query.toLowerCase());
+            return userService.convertToDTOs(users.stream().limit(limit).collect(Collectors.toList()), currentUser);
+        }
+
+        List<Integer> ids = peopleSearchIndex.search(query, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, User> usersById = userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, user -> user));
+        List<User> users = ids.stream()
+                .map(usersById::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+        return userService.convertToDTOs(users, currentUser);
     }
 }
@@ -0,0 +1,135 @@
+package com.blog._blog.service;
+
+import com.blog._blog.dto.CursorPageDTO;
+import com.blog._blog.entity.Post;
+import com.blog._blog.entity.TimelineEntry;
+import com.blog._blog.repository.PostRepository;
+import com.blog._blog.repository.TimelineEntryRepository;
+import com.blog._blog.util.FeedCursor;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the fan-out-on-write home timelines ({@code timeline_entries}) in sync with
+ * posts and follow edges. Every write here is a single set-based statement.
+ */
+@Service
+@RequiredArgsConstructor
+public class TimelineService {
+
+    private static final Logger log = LoggerFactory.getLogger(TimelineService.class);
+
+    // How many recent posts of a newly followed author are copied into the follower's timeline.
+    private static final int FOLLOW_BACKFILL_LIMIT = 200;
+
+    private final TimelineEntryRepository timelineEntryRepository;
+    private final PostRepository postRepository;
+
+    /**
+     * One page of the home timeline. Hidden or deleted posts are dropped after the entries are
+     * read, so the cursor comes from the last entry of the page rather than the last post
+     * returned: a page whose posts were all dropped still leads on to older entries.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<Post> getTimeline(Integer userId, FeedCursor before, Pageable pageable) {
+        Slice<TimelineEntry> entries = before == null
+                ? timelineEntryRepository.findEntriesByUserId(userId, pageable)
+                : timelineEntryRepository.findEntriesByUserIdBefore(
+                        userId, before.getCreatedAt(), before.getId(), pageable);
+        if (entries.getContent().isEmpty()) {
+            return CursorPageDTO.<Post>builder().items(List.of()).build();
+        }
+
+        List<Long> postIds = entries.getContent().stream()
+                .map(TimelineEntry::getPostId)
+                .collect(Collectors.toList());
+        Map<Long, Post> postsById = postRepository.findAllById(postIds).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+
+        List<Post> posts = postIds.stream()
+                .map(postsById::get)
+                .filter(Objects::nonNull)
+                .filter(post -> !post.isHidden())
+                .collect(Collectors.toList());
+        String nextCursor = null;
+        if (entries.hasNext()) {
+            TimelineEntry last = entries.getContent().get(entries.getContent().size() - 1);
+            nextCursor = FeedCursor.encode(last.getCreatedAt(), last.getPostId());
+        }
+        return CursorPageDTO.<Post>builder()
+                .items(posts)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Transactional
+    public void publish(Post post) {
+        if (post.isHidden()) {
+            return;
+        }
+        Integer authorId = post.getAuthor().getId();
+        timelineEntryRepository.insertEntry(authorId, post.getId(), authorId, post.getCreatedAt());
+        timelineEntryRepository.fanOutToFollowers(post.getId(), authorId, post.getCreatedAt());
+    }
+
+    @Transactional
+    public void retract(Long postId) {
+        timelineEntryRepository.deleteByPostId(postId);
+    }
+
+    @Transactional
+    public void publishAll(Collection<Long> postIds) {
+        timelineEntryRepository.publishPosts(postIds);
+    }
+
+    @Transactional
+    public void retractAll(Collection<Long> postIds) {
+        timelineEntryRepository.deleteByPostIdIn(postIds);
+    }
+
+    @Transactional
+    public void retractAuthor(Integer authorId) {
+        timelineEntryRepository.deleteByAuthorId(authorId);
+    }
+
+    @Transactional
+    public void follow(Integer followerId, Integer authorId) {
+        timelineEntryRepository.backfillFromAuthor(followerId, authorId, FOLLOW_BACKFILL_LIMIT);
+    }
+
+    @Transactional
+    public void unfollow(Integer followerId, Integer authorId) {
+        timelineEntryRepository.deleteByUserIdAndAuthorId(followerId, authorId);
+    }
+
+    @Transactional
+    public void removeUser(Integer userId) {
+        timelineEntryRepository.deleteByUserInvolved(userId);
+    }
+
+    // One-time materialization for databases that predate the timeline table.
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (timelineEntryRepository.count() > 0 || postRepository.count() == 0) {
+            return;
+        }
+        int authorRows = timelineEntryRepository.rebuildAuthorEntries();
+        int followerRows = timelineEntryRepository.rebuildFollowerEntries();
+        log.info("Backfilled home timelines with {} entries", authorRows + followerRows);
+    }
+}
@@ -0,0 +1,225 @@
+package com.blog._blog.service;
+
+import com.blog._blog.entity.UserDeletionJob;
+import com.blog._blog.repository.CommentRepository;
+import com.blog._blog.repository.NotificationRepository;
+import com.blog._blog.repository.PostRepository;
+import com.blog._blog.repository.UserDeletionJobRepository;
+import com.blog._blog.repository.UserRepository;
+import com.blog._blog.security.UserPrincipalCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Runs user deletion jobs in the background, one bounded step per transaction. Each step claims
+ * the job row (SKIP LOCKED) and advances its phase and counters in the same transaction as the
+ * rows it deletes, so a crash resumes at the next chunk and repeats nothing:
+ * <ol>
+ *   <li>COMMENTS: the user's comments, {@code app.users.deletion.batch-size} at a time, releasing
+ *   the comment counters of the posts they were on;</li>
+ *   <li>POSTS: the user's posts in chunks of the same size, with their images, likes, comments,
+ *   reports and timeline rows;</li>
+ *   <li>ACCOUNT: the user's likes, follows, notifications, reports and timeline rows, each one
+ *   set-based DELETE after releasing the counters it holds, then the user row itself.</li>
+ * </ol>
+ * The user is banned when the job is requested, so nothing new gets attached to them meanwhile.
+ */
+@Component
+public class UserDeletionWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(UserDeletionWorker.class);
+
+    private final UserDeletionJobRepository jobRepository;
+    private final UserRepository userRepository;
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final NotificationRepository notificationRepository;
+    private final TimelineService timelineService;
+    private final UserPrincipalCache userPrincipalCache;
+    private final PeopleSearchIndex peopleSearchIndex;
+    private final PlatformStats platformStats;
+    private final ReportCountTracker reportCountTracker;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxStepsPerRun;
+    private final int maxAttempts;
+
+    public UserDeletionWorker(UserDeletionJobRepository jobRepository,
+            UserRepository userRepository,
+            PostRepository postRepository,
+            CommentRepository commentRepository,
+            NotificationRepository notificationRepository,
+            TimelineService timelineService,
+            UserPrincipalCache userPrincipalCache,
+            PeopleSearchIndex peopleSearchIndex,
+            PlatformStats platformStats,
+            ReportCountTracker reportCountTracker,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.users.deletion.batch-size:500}") int batchSize,
+            @Value("${app.users.deletion.max-steps-per-run:20}") int maxStepsPerRun,
+            @Value("${app.users.deletion.max-attempts:10}") int maxAttempts) {
+        this.jobRepository = jobRepository;
+        this.userRepository = userRepository;
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.notificationRepository = notificationRepository;
+        this.timelineService = timelineService;
+        this.userPrincipalCache = userPrincipalCache;
+        this.peopleSearchIndex = peopleSearchIndex;
+        this.platformStats = platformStats;
+        this.reportCountTracker = reportCountTracker;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxStepsPerRun = maxStepsPerRun;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Scheduled(fixedDelayString = "${app.users.deletion.interval-ms:1000}")
+    public void drain() {
+        for (int i = 0; i < maxStepsPerRun; i++) {
+            if (!processStep()) {
+                return;
+            }
+        }
+    }
+
+    // Runs one step of the oldest unfinished job; false when there was nothing to do or it failed.
+    private boolean processStep() {
+        Long[] claimedId = new Long[1];
+        try {
+            Boolean worked = transactionTemplate.execute(status -> {
+                Optional<UserDeletionJob> claimed = jobRepository.claimNextPending(maxAttempts);
+                if (claimed.isEmpty()) {
+                    return false;
+                }
+                UserDeletionJob job = claimed.get();
+                claimedId[0] = job.getId();
+                switch (job.getPhase()) {
+                    case COMMENTS:
+                        deleteCommentChunk(job);
+                        break;
+                    case POSTS:
+                        deletePostChunk(job);
+                        break;
+                    default:
+                        deleteAccount(job);
+                        break;
+                }
+                job.setUpdatedAt(LocalDateTime.now());
+                return true;
+            });
+            return Boolean.TRUE.equals(worked);
+        } catch (RuntimeException ex) {
+            log.warn("User deletion job {} failed: {}", claimedId[0], ex.getMessage());
+            if (claimedId[0] != null) {
+                String error = ex.getMessage() == null ? ex.getClass().getSimpleName() : ex.getMessage();
+                transactionTemplate.executeWithoutResult(status -> jobRepository.recordFailure(claimedId[0],
+                        error.length() > 500 ? error.substring(0, 500) : error, LocalDateTime.now()));
+            }
+            return false;
+        }
+    }
+
+    private void deleteCommentChunk(UserDeletionJob job) {
+        List<Long> chunk = jdbcTemplate.queryForList("SELECT id FROM comments WHERE author_id = ? ORDER BY id LIMIT ?",
+                Long.class, job.getUserId(), batchSize);
+        if (chunk.isEmpty()) {
+            job.setPhase(UserDeletionJob.Phase.POSTS);
+            return;
+        }
+        updateWithIds("UPDATE posts p SET comment_count = p.comment_count - c.cnt "
+                + "FROM (SELECT post_id, COUNT(*) AS cnt FROM comments WHERE id = ANY (?) GROUP BY post_id) c "
+                + "WHERE p.id = c.post_id", chunk);
+        updateWithIds("DELETE FROM comment_likes WHERE comment_id = ANY (?)", chunk);
+        int deleted = updateWithIds("DELETE FROM comments WHERE id = ANY (?)", chunk);
+        job.setCommentsDeleted(job.getCommentsDeleted() + deleted);
+    }
+
+    private void deletePostChunk(UserDeletionJob job) {
+        List<Long> chunk = jdbcTemplate.queryForList("SELECT id FROM posts WHERE author_id = ? ORDER BY id LIMIT ?",
+                Long.class, job.getUserId(), batchSize);
+        if (chunk.isEmpty()) {
+            job.setPhase(UserDeletionJob.Phase.ACCOUNT);
+            return;
+        }
+        // Other users' comments, likes and reports on these posts go with them; counters on the
+        // posts themselves need no release. post_report_counts rows cascade.
+        updateWithIds("DELETE FROM reports WHERE reported_post_id = ANY (?)", chunk);
+        updateWithIds("DELETE FROM timeline_entries WHERE post_id = ANY (?)", chunk);
+        updateWithIds("DELETE FROM comment_likes WHERE comment_id IN "
+                + "(SELECT id FROM comments WHERE post_id = ANY (?))", chunk);
+        updateWithIds("DELETE FROM comments WHERE post_id = ANY (?)", chunk);
+        updateWithIds("DELETE FROM post_likes WHERE post_id = ANY (?)", chunk);
+        updateWithIds("DELETE FROM post_images WHERE post_id = ANY (?)", chunk);
+        int deleted = updateWithIds("DELETE FROM posts WHERE id = ANY (?)", chunk);
+        job.setPostsDeleted(job.getPostsDeleted() + deleted);
+    }
+
+    private void deleteAccount(UserDeletionJob job) {
+        Integer userId = job.getUserId();
+        String email = jdbcTemplate.query("SELECT email FROM _user WHERE id = ?",
+                rs -> rs.next() ? rs.getString(1) : null, userId);
+        if (email != null && hasContentLeft(userId)) {
+            // Something was written before the ban took effect; sweep it up first.
+            job.setPhase(UserDeletionJob.Phase.COMMENTS);
+            return;
+        }
+
+        if (email != null) {
+            // Counters on other rows first, while the rows that explain them still exist.
+            userRepository.decrementFollowingCountsOfFollowers(userId);
+            userRepository.decrementFollowersCountsOfFollowed(userId);
+            postRepository.decrementLikeCountsLikedBy(userId);
+            commentRepository.decrementLikeCountsLikedBy(userId);
+            jdbcTemplate.update("DELETE FROM user_following WHERE user_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM user_following WHERE following_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM post_likes WHERE user_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM comment_likes WHERE user_id = ?", userId);
+
+            notificationRepository.removeActorFromAggregates(userId);
+            notificationRepository.deleteByActorId(userId);
+            notificationRepository.deleteByRecipientId(userId);
+
+            reportCountTracker.reporterRemoved(userId);
+            jdbcTemplate.update("DELETE FROM reports WHERE reporter_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM reports WHERE reported_user_id = ?", userId);
+
+            timelineService.removeUser(userId);
+            jdbcTemplate.update("DELETE FROM _user WHERE id = ?", userId);
+
+            userPrincipalCache.evict(email);
+            peopleSearchIndex.delete(userId);
+        }
+        // Their posts and reports are gone; let the totals be re-counted.
+        platformStats.requestResync();
+        reportCountTracker.targetsRemoved();
+
+        job.setPhase(UserDeletionJob.Phase.DONE);
+        job.setCompletedAt(LocalDateTime.now());
+        log.info("Deleted user {} ({} posts, {} comments)", userId, job.getPostsDeleted(), job.getCommentsDeleted());
+    }
+
+    private boolean hasContentLeft(Integer userId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM comments WHERE author_id = ?) "
+                        + "OR EXISTS (SELECT 1 FROM posts WHERE author_id = ?)",
+                Boolean.class, userId, userId));
+    }
+
+    private int updateWithIds(String sql, List<Long> ids) {
+        return jdbcTemplate.update(sql,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())));
+    }
+}
@@ -1,13 +1,15 @@
 package com.blog._blog.service;
 
 import com.blog._blog.dto.UserDTO;
+import com.blog._blog.dto.UserDeletionJobDTO;
 import com.blog._blog.entity.NotificationType;
 import com.blog._blog.entity.User;
-import com.blog._blog.repository.CommentRepository;
-import com.blog._blog.repository.NotificationRepository;
+import com.blog._blog.entity.UserDeletionJob;
 import com.blog._blog.repository.PostRepository;
-import com.blog._blog.repository.ReportRepository;
+import com.blog._blog.repository.UserDeletionJobRepository;
 import com.blog._blog.repository.UserRepository;
+import com.blog._blog.security.CurrentUserResolver;
+import com.blog._blog.security.UserPrincipalCache;
 import com.blog._blog.util.HtmlSanitizer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -15,8 +17,15 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -27,23 +36,24 @@ public class UserService {
 
 
     private final UserRepository userRepository;
+    private final CurrentUserResolver currentUserResolver;
+    private final UserPrincipalCache userPrincipalCache;
     private final NotificationService notificationService;
     private final PostRepository postRepository;
-    private final CommentRepository commentRepository;
-    private final NotificationRepository notificationRepository;
-    private final ReportRepository reportRepository;
+    private final TimelineService timelineService;
+    private final PeopleSearchIndex peopleSearchIndex;
+    private final PlatformStats platformStats;
+    private final UserDeletionJobRepository userDeletionJobRepository;
 
     @Transactional(readOnly = true)
     public List<UserDTO> getAllUsers(String currentUserEmail) {
-        User currentUser = currentUserEmail != null ? userRepository.findByEmail(currentUserEmail).orElse(null) : null;
-        return userRepository.findAll().stream()
-                .map(user -> convertToDTO(user, currentUser))
-                .collect(Collectors.toList());
+        User currentUser = currentUserEmail != null ? currentUserResolver.findByEmail(currentUserEmail).orElse(null) : null;
+        return convertToDTOs(userRepository.findAll(), currentUser);
     }
 
     @Transactional
     public UserDTO updateProfile(String email, UserDTO updateRequest) {
-        User user = userRepository.findByEmail(email)
+        User user = currentUserResolver.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         if (Boolean.TRUE.equals(user.getBanned())) {
@@ -64,12 +74,14 @@ public class UserService {
             user.setSubscribed(updateRequest.getSubscribed());
 
         User saved = userRepository.save(user);
+        userPrincipalCache.evict(saved.getEmail());
+        peopleSearchIndex.upsert(saved);
         return convertToDTO(saved, saved);
     }
 
     @Transactional
     public UserDTO toggleSubscribe(String email) {
-        User user = userRepository.findByEmail(email)
+        User user = currentUserResolver.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         if (Boolean.TRUE.equals(user.getBanned())) {
@@ -78,12 +90,13 @@ public class UserService {
 
         user.setSubscribed(!user.getSubscribed());
         User saved = userRepository.save(user);
+        userPrincipalCache.evict(saved.getEmail());
         return convertToDTO(saved, saved);
     }
 
     @Transactional
     public void followUser(String followerEmail, Integer targetUserId) {
-        User follower = userRepository.findByEmail(followerEmail)
+        User follower = currentUserResolver.findByEmail(followerEmail)
                 .orElseThrow(() -> new RuntimeException("Follower not found"));
 
         if (Boolean.TRUE.equals(follower.getBanned())) {
@@ -97,40 +110,55 @@ public class UserService {
             throw new RuntimeException("You cannot follow yourself");
         }
 
-        if (follower.getFollowing().contains(target)) {
-            follower.getFollowing().remove(target);
+        // Counters only move for a row actually written, so a concurrent double toggle is a no-op.
+        if (userRepository.existsFollow(follower.getId(), target.getId())) {
+            if (userRepository.deleteFollow(follower.getId(), target.getId()) == 0) {
+                return;
+            }
+            userRepository.adjustFollowingCount(follower.getId(), -1);
+            userRepository.adjustFollowersCount(target.getId(), -1);
+            timelineService.unfollow(follower.getId(), target.getId());
             notificationService.deleteNotification(
                     target,
                     follower,
                     NotificationType.FOLLOW,
                     Long.valueOf(follower.getId()));
         } else {
-            follower.getFollowing().add(target);
+            if (userRepository.insertFollow(follower.getId(), target.getId()) == 0) {
+                return;
+            }
+            userRepository.adjustFollowingCount(follower.getId(), 1);
+            userRepository.adjustFollowersCount(target.getId(), 1);
+            timelineService.follow(follower.getId(), target.getId());
             notificationService.createNotification(target, follower, NotificationType.FOLLOW,
                     Long.valueOf(follower.getId()));
         }
-
-        userRepository.save(follower);
     }
 
     @Transactional(readOnly = true)
     public UserDTO getUserById(Integer id, String currentUserEmail) {
         User targetUser = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        User currentUser = currentUserEmail != null ? userRepository.findByEmail(currentUserEmail).orElse(null) : null;
+        User currentUser = currentUserEmail != null ? currentUserResolver.findByEmail(currentUserEmail).orElse(null) : null;
         return convertToDTO(targetUser, currentUser);
     }
 
     @Transactional(readOnly = true)
     public UserDTO getCurrentUser(String email) {
-        User currentUser = userRepository.findByEmail(email)
+        User currentUser = currentUserResolver.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         return convertToDTO(currentUser, currentUser);
     }
 
+    /**
+     * Queues the user for deletion by UserDeletionWorker and bans them right away, so nothing new
+     * gets attached to them while their content is removed in chunks. Asking again while a job is
+     * still running returns that job, with its attempts reset if it had failed, so a job parked
+     * after too many failures is retried.
+     */
     @Transactional
-    public void deleteUser(Integer id, String requesterEmail) {
-        User requester = userRepository.findByEmail(requesterEmail)
+    public UserDeletionJobDTO deleteUser(Integer id, String requesterEmail) {
+        User requester = currentUserResolver.findByEmail(requesterEmail)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         if (requester.getRole() != com.blog._blog.entity.Role.ADMIN) {
@@ -144,48 +172,64 @@ public class UserService {
         User userToDelete = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        // 1. Remove user from followers/following sets
-        for (User following : new java.util.HashSet<>(userToDelete.getFollowing())) {
-            following.getFollowers().remove(userToDelete);
-            userToDelete.getFollowing().remove(following);
-        }
-        for (User follower : new java.util.HashSet<>(userToDelete.getFollowers())) {
-            follower.getFollowing().remove(userToDelete);
-            userToDelete.getFollowers().remove(follower);
-        }
-
-        // 2. Clear likes from posts and comments
-        List<com.blog._blog.entity.Post> allPosts = postRepository.findAll();
-        for (com.blog._blog.entity.Post post : allPosts) {
-            if (post.getLikes().contains(userToDelete)) {
-                post.getLikes().remove(userToDelete);
-                postRepository.save(post);
+        Optional<UserDeletionJob> running = userDeletionJobRepository
+                .findFirstByUserIdAndPhaseNot(id, UserDeletionJob.Phase.DONE);
+        if (running.isPresent()) {
+            UserDeletionJob job = running.get();
+            if (job.getAttempts() > 0
+                    && userDeletionJobRepository.resetAttempts(job.getId(), LocalDateTime.now()) > 0) {
+                job = userDeletionJobRepository.findById(job.getId()).orElse(job);
             }
+            return convertToDTO(job);
         }
-        List<com.blog._blog.entity.Comment> allComments = commentRepository.findAll();
-        for (com.blog._blog.entity.Comment comment : allComments) {
-            if (comment.getLikes().contains(userToDelete)) {
-                comment.getLikes().remove(userToDelete);
-                commentRepository.save(comment);
-            }
+
+        if (!Boolean.TRUE.equals(userToDelete.getBanned())) {
+            userToDelete.setBanned(true);
+            userRepository.save(userToDelete);
+            platformStats.banChanged(true);
         }
+        userPrincipalCache.evict(userToDelete.getEmail());
+
+        UserDeletionJob job = userDeletionJobRepository.save(UserDeletionJob.builder()
+                .userId(id)
+                .requestedBy(requester.getId())
+                .phase(UserDeletionJob.Phase.COMMENTS)
+                .build());
+        return convertToDTO(job);
+    }
+
+    @Transactional(readOnly = true)
+    public UserDeletionJobDTO getDeletionJob(Long jobId, String requesterEmail) {
+        User requester = currentUserResolver.findByEmail(requesterEmail)
+                .orElseThrow(() -> new RuntimeException("User not found"));
 
-        // 3. Delete notifications where user is recipient or actor
-        notificationRepository.deleteByRecipient(userToDelete);
-        notificationRepository.deleteByActor(userToDelete);
+        if (requester.getRole() != com.blog._blog.entity.Role.ADMIN) {
+            throw new RuntimeException("Unauthorized");
+        }
 
-        // 4. Delete reports by or against user, and reports against user's posts
-        reportRepository.deleteByReporter(userToDelete);
-        reportRepository.deleteByReportedUser(userToDelete);
-        reportRepository.deleteByReportedPostAuthor(userToDelete);
+        return userDeletionJobRepository.findById(jobId)
+                .map(this::convertToDTO)
+                .orElseThrow(() -> new RuntimeException("Deletion job not found"));
+    }
 
-        // 5. Posts and Comments are handled by CascadeType.ALL in User entity
-        userRepository.delete(userToDelete);
+    private UserDeletionJobDTO convertToDTO(UserDeletionJob job) {
+        return UserDeletionJobDTO.builder()
+                .id(job.getId())
+                .userId(job.getUserId())
+                .phase(job.getPhase().name())
+                .commentsDeleted(job.getCommentsDeleted())
+                .postsDeleted(job.getPostsDeleted())
+                .attempts(job.getAttempts())
+                .lastError(job.getLastError())
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .completedAt(job.getCompletedAt())
+                .build();
     }
 
     @Transactional
     public UserDTO toggleBan(Integer id, String requesterEmail) {
-        User requester = userRepository.findByEmail(requesterEmail)
+        User requester = currentUserResolver.findByEmail(requesterEmail)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         if (requester.getRole() != com.blog._blog.entity.Role.ADMIN) {
@@ -201,12 +245,31 @@ public class UserService {
 
         userToBan.setBanned(!Boolean.TRUE.equals(userToBan.getBanned()));
         User saved = userRepository.save(userToBan);
+        userPrincipalCache.evict(saved.getEmail());
+        platformStats.banChanged(Boolean.TRUE.equals(saved.getBanned()));
         return convertToDTO(saved, requester);
     }
 
+    // Bans or unbans a batch in one UPDATE; returns how many users actually changed state.
+    @Transactional
+    public int setBanned(Collection<Integer> ids, boolean banned, String requesterEmail) {
+        User requester = currentUserResolver.findByEmail(requesterEmail)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        if (requester.getRole() != com.blog._blog.entity.Role.ADMIN) {
+            throw new RuntimeException("Unauthorized");
+        }
+
+        List<String> emails = userRepository.findEmailsByIdIn(ids);
+        int updated = userRepository.updateBannedByIdIn(ids, banned, requester.getId());
+        userPrincipalCache.evict(emails);
+        platformStats.bansChanged(banned, updated);
+        return updated;
+    }
+
     @Transactional
     public UserDTO adminUpdateUser(Integer id, UserDTO updateRequest, String requesterEmail) {
-        User requester = userRepository.findByEmail(requesterEmail)
+        User requester = currentUserResolver.findByEmail(requesterEmail)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         if (requester.getRole() != com.blog._blog.entity.Role.ADMIN) {
@@ -230,6 +293,8 @@ public class UserService {
             userToUpdate.setRole(com.blog._blog.entity.Role.valueOf(updateRequest.getRole()));
 
         User saved = userRepository.save(userToUpdate);
+        userPrincipalCache.evict(saved.getEmail());
+        peopleSearchIndex.upsert(saved);
         return convertToDTO(saved, requester);
     }
 
@@ -285,25 +350,45 @@ public class UserService {
     }
 
     public UserDTO convertToDTO(User user, User currentUser) {
-        return UserDTO.builder()
-                .id(user.getId())
-                .firstname(user.getFirstname())
-                .lastname(user.getLastname())
-                .name(user.getFirstname() + " " + user.getLastname())
-                .handle("@" + user.getEmail().split("@")[0])
-                .email(user.getEmail())
-                .role(user.getRole().name())
-                .username(user.getEmail().split("@")[0])
-                .avatar(user.getAvatar())
-                .cover(user.getCover())
-                .bio(user.getBio())
-                .createdAt(user.getCreatedAt())
-                .subscribed(Boolean.TRUE.equals(user.getSubscribed()))
-                .isFollowing(currentUser != null && currentUser.getFollowing().contains(user))
-                .followersCount(user.getFollowers() != null ? user.getFollowers().size() : 0)
-                .followingCount(user.getFollowing() != null ? user.getFollowing().size() : 0)
-                .banned(Boolean.TRUE.equals(user.getBanned()))
-                .postCount((int) postRepository.countByAuthorId(user.getId()))
-                .build();
+        return convertToDTOs(List.of(user), currentUser).get(0);
+    }
+
+    // Bulk variant: post counts and the viewer's follow edges come from one grouped query each.
+    public List<UserDTO> convertToDTOs(List<User> users, User currentUser) {
+        if (users.isEmpty()) {
+            return List.of();
+        }
+
+        List<Integer> userIds = users.stream().map(User::getId).collect(Collectors.toList());
+        Map<Integer, Long> postCounts = new HashMap<>();
+        for (Object[] row : postRepository.countByAuthorIds(userIds)) {
+            postCounts.put(((Number) row[0]).intValue(), ((Number) row[1]).longValue());
+        }
+        Set<Integer> followedIds = currentUser != null
+                ? new HashSet<>(userRepository.findFollowedIds(currentUser.getId(), userIds))
+                : Set.of();
+
+        return users.stream()
+                .map(user -> UserDTO.builder()
+                        .id(user.getId())
+                        .firstname(user.getFirstname())
+                        .lastname(user.getLastname())
+                        .name(user.getFirstname() + " " + user.getLastname())
+                        .handle("@" + user.getEmail().split("@")[0])
+                        .email(user.getEmail())
+                        .role(user.getRole().name())
+                        .username(user.getEmail().split("@")[0])
+                        .avatar(user.getAvatar())
+                        .cover(user.getCover())
+                        .bio(user.getBio())
+                        .createdAt(user.getCreatedAt())
+                        .subscribed(Boolean.TRUE.equals(user.getSubscribed()))
+                        .isFollowing(followedIds.contains(user.getId()))
+                        .followersCount(user.getFollowersCount())
+                        .followingCount(user.getFollowingCount())
+                        .banned(Boolean.TRUE.equals(user.getBanned()))
+                        .postCount(postCounts.getOrDefault(user.getId(), 0L).intValue())
+                        .build())
+                .collect(Collectors.toList());
     }
 }
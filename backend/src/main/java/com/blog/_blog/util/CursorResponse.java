@@ -0,0 +1,26 @@
+package com.blog._blog.util;
+
+import com.blog._blog.dto.CursorPageDTO;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * Keeps list endpoints backward compatible: the body stays a plain JSON array and the
+ * keyset cursor for the next page travels in the {@value #NEXT_CURSOR_HEADER} header.
+ */
+public final class CursorResponse {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private CursorResponse() {
+    }
+
+    public static <T> ResponseEntity<List<T>> ok(CursorPageDTO<T> page) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            builder.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return builder.body(page.getItems());
+    }
+}
@@ -0,0 +1,40 @@
+package com.blog._blog.util;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Keyset cursor over ranked search results, serialized as {@code <rank>,<id>}. The rank is the
+ * float4 {@code ts_rank} value as returned by Postgres, so it round-trips exactly.
+ */
+@Getter
+@RequiredArgsConstructor
+public class SearchCursor {
+
+    private final float rank;
+    private final Long id;
+
+    public static SearchCursor parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        int separator = value.lastIndexOf(',');
+        if (separator <= 0 || separator == value.length() - 1) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        try {
+            return new SearchCursor(
+                    Float.parseFloat(value.substring(0, separator).trim()),
+                    Long.parseLong(value.substring(separator + 1).trim()));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public static String encode(float rank, Long id) {
+        if (id == null) {
+            return null;
+        }
+        return rank + "," + id;
+    }
+}
@@ -0,0 +1,3 @@
+-- Aggregated notifications record their latest actor in updated_at; created_at stays the partition
+-- and keyset cursor key. Existing rows keep NULL, which the application reads as created_at.
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS updated_at timestamp;
@@ -0,0 +1,4 @@
+-- Deleting a user takes them out of the aggregated notifications that list them as a sample
+-- actor (NotificationRepository.removeActorFromAggregates); this index finds those rows.
+CREATE INDEX IF NOT EXISTS idx_notifications_sample_actors
+    ON notifications USING GIN ((string_to_array(sample_actor_ids, ',')));
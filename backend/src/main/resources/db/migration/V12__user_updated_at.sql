@@ -0,0 +1,6 @@
+-- The people search index reloads users changed since its last pass (updated_at) and users whose
+-- deletion job completed since then. Existing rows keep NULL; they are loaded by the startup build.
+ALTER TABLE _user ADD COLUMN IF NOT EXISTS updated_at timestamp;
+CREATE INDEX IF NOT EXISTS idx_user_updated_at ON _user (updated_at);
+CREATE INDEX IF NOT EXISTS idx_user_deletion_jobs_completed_at ON user_deletion_jobs (completed_at)
+    WHERE completed_at IS NOT NULL;
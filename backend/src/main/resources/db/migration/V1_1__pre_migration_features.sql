@@ -0,0 +1,81 @@
+-- Tables and columns that were added while the schema was still managed by ddl-auto=update. A
+-- database baselined at V1 may carry any subset of them already, hence IF NOT EXISTS throughout.
+
+ALTER TABLE _user ADD COLUMN IF NOT EXISTS notifications_read_up_to bigint;
+ALTER TABLE _user ADD COLUMN IF NOT EXISTS notifications_read_at timestamp;
+
+-- A counter column added here is filled from its source table right away; one that already
+-- exists is left to CounterReconciliationJob.
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema() AND table_name = '_user' AND column_name = 'followers_count') THEN
+        ALTER TABLE _user ADD COLUMN followers_count integer DEFAULT 0 NOT NULL;
+        UPDATE _user u SET followers_count = s.cnt
+        FROM (SELECT following_id, COUNT(*) AS cnt FROM user_following GROUP BY following_id) s
+        WHERE u.id = s.following_id;
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema() AND table_name = '_user' AND column_name = 'following_count') THEN
+        ALTER TABLE _user ADD COLUMN following_count integer DEFAULT 0 NOT NULL;
+        UPDATE _user u SET following_count = s.cnt
+        FROM (SELECT user_id, COUNT(*) AS cnt FROM user_following GROUP BY user_id) s
+        WHERE u.id = s.user_id;
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema() AND table_name = '_user' AND column_name = 'unread_notifications_count') THEN
+        ALTER TABLE _user ADD COLUMN unread_notifications_count integer DEFAULT 0 NOT NULL;
+        UPDATE _user u SET unread_notifications_count = s.cnt
+        FROM (SELECT n.recipient_id, COUNT(*) AS cnt FROM notifications n JOIN _user w ON w.id = n.recipient_id
+              WHERE NOT n.is_read AND n.id > COALESCE(w.notifications_read_up_to, 0) GROUP BY n.recipient_id) s
+        WHERE u.id = s.recipient_id;
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema() AND table_name = 'posts' AND column_name = 'like_count') THEN
+        ALTER TABLE posts ADD COLUMN like_count integer DEFAULT 0 NOT NULL;
+        UPDATE posts p SET like_count = s.cnt
+        FROM (SELECT post_id, COUNT(*) AS cnt FROM post_likes GROUP BY post_id) s
+        WHERE p.id = s.post_id;
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema() AND table_name = 'posts' AND column_name = 'comment_count') THEN
+        ALTER TABLE posts ADD COLUMN comment_count integer DEFAULT 0 NOT NULL;
+        UPDATE posts p SET comment_count = s.cnt
+        FROM (SELECT post_id, COUNT(*) AS cnt FROM comments GROUP BY post_id) s
+        WHERE p.id = s.post_id;
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema() AND table_name = 'comments' AND column_name = 'like_count') THEN
+        ALTER TABLE comments ADD COLUMN like_count integer DEFAULT 0 NOT NULL;
+        UPDATE comments c SET like_count = s.cnt
+        FROM (SELECT comment_id, COUNT(*) AS cnt FROM comment_likes GROUP BY comment_id) s
+        WHERE c.id = s.comment_id;
+    END IF;
+END $$;
+
+-- Notification aggregation (NotificationService.createNotification).
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS actor_count integer DEFAULT 1 NOT NULL;
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS sample_actor_ids varchar(64);
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS bucket_start timestamp;
+
+CREATE TABLE IF NOT EXISTS timeline_entries (
+    user_id    integer NOT NULL,
+    post_id    bigint NOT NULL,
+    author_id  integer NOT NULL,
+    created_at timestamp NOT NULL,
+    PRIMARY KEY (post_id, user_id)
+);
+CREATE INDEX IF NOT EXISTS idx_timeline_user_created ON timeline_entries (user_id, created_at, post_id);
+CREATE INDEX IF NOT EXISTS idx_timeline_post ON timeline_entries (post_id);
+CREATE INDEX IF NOT EXISTS idx_timeline_author ON timeline_entries (author_id);
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id           bigserial PRIMARY KEY,
+    type         varchar(32) NOT NULL,
+    aggregate_id bigint NOT NULL,
+    actor_id     integer NOT NULL,
+    progress     bigint DEFAULT 0 NOT NULL,
+    attempts     integer DEFAULT 0 NOT NULL,
+    created_at   timestamp NOT NULL,
+    processed_at timestamp
+);
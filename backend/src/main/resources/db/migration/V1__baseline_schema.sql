@@ -0,0 +1,84 @@
+-- Baseline: the schema ddl-auto=update produced for the entities as they were before migrations
+-- were introduced. Existing databases are baselined at version 1 (spring.flyway.baseline-on-migrate)
+-- and skip this file; new ones start from here. Everything added since lives in V1_1 onwards.
+
+CREATE TABLE _user (
+    id         serial PRIMARY KEY,
+    firstname  varchar(255),
+    lastname   varchar(255),
+    email      varchar(255) NOT NULL CONSTRAINT uk_user_email UNIQUE,
+    avatar     text,
+    cover      text,
+    bio        text,
+    created_at timestamp,
+    password   varchar(255),
+    role       varchar(255),
+    banned     boolean,
+    subscribed boolean
+);
+
+CREATE TABLE user_following (
+    user_id      integer NOT NULL REFERENCES _user (id),
+    following_id integer NOT NULL REFERENCES _user (id),
+    PRIMARY KEY (user_id, following_id)
+);
+
+CREATE TABLE posts (
+    id         bigserial PRIMARY KEY,
+    title      varchar(255) NOT NULL,
+    content    text NOT NULL,
+    category   varchar(255),
+    read_time  varchar(255),
+    author_id  integer NOT NULL REFERENCES _user (id),
+    hidden     boolean DEFAULT false,
+    created_at timestamp NOT NULL,
+    updated_at timestamp
+);
+
+CREATE TABLE post_images (
+    post_id   bigint NOT NULL REFERENCES posts (id),
+    image_url text
+);
+
+CREATE TABLE post_likes (
+    post_id bigint NOT NULL REFERENCES posts (id),
+    user_id integer NOT NULL REFERENCES _user (id),
+    PRIMARY KEY (post_id, user_id)
+);
+
+CREATE TABLE comments (
+    id         bigserial PRIMARY KEY,
+    content    text NOT NULL,
+    author_id  integer NOT NULL REFERENCES _user (id),
+    post_id    bigint NOT NULL REFERENCES posts (id),
+    created_at timestamp NOT NULL
+);
+
+CREATE TABLE comment_likes (
+    comment_id bigint NOT NULL REFERENCES comments (id),
+    user_id    integer NOT NULL REFERENCES _user (id),
+    PRIMARY KEY (comment_id, user_id)
+);
+
+CREATE TABLE reports (
+    id               bigserial PRIMARY KEY,
+    reason           text NOT NULL,
+    reporter_id      integer NOT NULL REFERENCES _user (id),
+    reported_user_id integer REFERENCES _user (id),
+    reported_post_id bigint REFERENCES posts (id),
+    status           varchar(255),
+    created_at       timestamp NOT NULL,
+    CONSTRAINT uk_reports_reporter_reported_user UNIQUE (reporter_id, reported_user_id),
+    CONSTRAINT uk_reports_reporter_reported_post UNIQUE (reporter_id, reported_post_id)
+);
+
+-- A plain table here; V3 converts it to monthly partitions.
+CREATE TABLE notifications (
+    id           bigserial PRIMARY KEY,
+    recipient_id integer NOT NULL REFERENCES _user (id),
+    actor_id     integer NOT NULL REFERENCES _user (id),
+    type         varchar(255) NOT NULL,
+    entity_id    bigint,
+    is_read      boolean NOT NULL,
+    created_at   timestamp NOT NULL
+);
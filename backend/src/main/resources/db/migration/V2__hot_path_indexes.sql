@@ -0,0 +1,36 @@
+-- Indexes for the access paths the repositories use. IF NOT EXISTS because databases baselined
+-- from ddl-auto may already carry some of them.
+
+-- Global and per-author feeds: keyset on (created_at, id) newest first.
+CREATE INDEX IF NOT EXISTS idx_posts_created ON posts (created_at, id);
+CREATE INDEX IF NOT EXISTS idx_posts_author_created ON posts (author_id, created_at, id);
+-- Public listings only ever read visible posts.
+CREATE INDEX IF NOT EXISTS idx_posts_visible_created ON posts (created_at, id) WHERE hidden = false;
+CREATE INDEX IF NOT EXISTS idx_posts_visible_author_created ON posts (author_id, created_at, id) WHERE hidden = false;
+-- Moderation: the (small) set of hidden posts.
+CREATE INDEX IF NOT EXISTS idx_posts_hidden_created ON posts (created_at) WHERE hidden = true;
+
+CREATE INDEX IF NOT EXISTS idx_post_images_post ON post_images (post_id);
+
+-- Join tables are keyed (owner, user); these serve the reverse lookups
+-- (posts a user liked, followers of a user, cleanup on user deletion).
+CREATE INDEX IF NOT EXISTS idx_post_likes_user ON post_likes (user_id);
+CREATE INDEX IF NOT EXISTS idx_comment_likes_user ON comment_likes (user_id);
+CREATE INDEX IF NOT EXISTS idx_user_following_following ON user_following (following_id, user_id);
+
+CREATE INDEX IF NOT EXISTS idx_comments_post_created ON comments (post_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_comments_author ON comments (author_id);
+
+CREATE INDEX IF NOT EXISTS idx_reports_reported_post ON reports (reported_post_id);
+CREATE INDEX IF NOT EXISTS idx_reports_reported_user ON reports (reported_user_id);
+CREATE INDEX IF NOT EXISTS idx_reports_status_created ON reports (status, created_at);
+
+CREATE INDEX IF NOT EXISTS idx_outbox_pending ON outbox_events (processed_at, id);
+
+-- Full-text search (PostSearchIndex): a stored generated tsvector behind a GIN index.
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('english'::regconfig, coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('english'::regconfig, coalesce(category, '')), 'B') ||
+        setweight(to_tsvector('english'::regconfig, coalesce(content, '')), 'C')) STORED;
+CREATE INDEX IF NOT EXISTS idx_posts_search_vector ON posts USING GIN (search_vector);
@@ -0,0 +1,69 @@
+-- Converts the plain notifications table of V1 to monthly range partitions on created_at, with a
+-- (id, created_at) primary key since Postgres requires the partition key in it. The id sequence
+-- is kept because the read watermark (_user.notifications_read_up_to) compares ids across old
+-- and new rows. Skipped when the table is already partitioned.
+DO $$
+DECLARE
+    seq     text;
+    fk      record;
+    first_m date;
+    m       date;
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = to_regclass('notifications')) IS DISTINCT FROM 'r' THEN
+        RETURN;
+    END IF;
+
+    LOCK TABLE notifications IN ACCESS EXCLUSIVE MODE;
+    SELECT date_trunc('month', coalesce(min(created_at), now()))::date INTO first_m FROM notifications;
+
+    ALTER TABLE notifications RENAME TO notifications_unpartitioned;
+    seq := pg_get_serial_sequence('notifications_unpartitioned', 'id');
+    IF seq IS NOT NULL THEN
+        EXECUTE format('ALTER SEQUENCE %s OWNED BY NONE', seq);
+    END IF;
+
+    CREATE TABLE notifications (LIKE notifications_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS,
+        PRIMARY KEY (id, created_at)) PARTITION BY RANGE (created_at);
+    FOR fk IN SELECT conname, pg_get_constraintdef(oid) AS def FROM pg_constraint
+              WHERE conrelid = 'notifications_unpartitioned'::regclass AND contype = 'f' LOOP
+        EXECUTE format('ALTER TABLE notifications ADD CONSTRAINT %I %s', fk.conname, fk.def);
+    END LOOP;
+
+    m := first_m;
+    WHILE m <= date_trunc('month', now())::date LOOP
+        EXECUTE format('CREATE TABLE notifications_p%s PARTITION OF notifications FOR VALUES FROM (%L) TO (%L)',
+                to_char(m, 'YYYYMM'), m, (m + interval '1 month')::date);
+        m := (m + interval '1 month')::date;
+    END LOOP;
+    CREATE TABLE notifications_default PARTITION OF notifications DEFAULT;
+
+    INSERT INTO notifications SELECT * FROM notifications_unpartitioned;
+    DROP TABLE notifications_unpartitioned;
+    IF seq IS NOT NULL THEN
+        EXECUTE format('ALTER SEQUENCE %s OWNED BY notifications.id', seq);
+    END IF;
+END $$;
+
+CREATE INDEX IF NOT EXISTS idx_notifications_recipient_created ON notifications (recipient_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_notifications_aggregate ON notifications (recipient_id, type, entity_id, bucket_start);
+CREATE INDEX IF NOT EXISTS idx_notifications_actor ON notifications (actor_id);
+CREATE INDEX IF NOT EXISTS idx_notifications_type_entity ON notifications (type, entity_id);
+
+-- The current month and the two ahead (app.notifications.partitions.months-ahead), so inserts
+-- never land in the default partition before NotificationPartitionManager first runs. A month
+-- whose rows already sit in the default partition is left to NotificationPartitionManager,
+-- which moves them out.
+DO $$
+DECLARE
+    m date := date_trunc('month', now())::date;
+BEGIN
+    FOR i IN 0..2 LOOP
+        IF to_regclass('notifications_p' || to_char(m, 'YYYYMM')) IS NULL
+                AND NOT EXISTS (SELECT 1 FROM notifications_default
+                                WHERE created_at >= m AND created_at < (m + interval '1 month')) THEN
+            EXECUTE format('CREATE TABLE notifications_p%s PARTITION OF notifications FOR VALUES FROM (%L) TO (%L)',
+                    to_char(m, 'YYYYMM'), m, (m + interval '1 month')::date);
+        END IF;
+        m := (m + interval '1 month')::date;
+    END LOOP;
+END $$;
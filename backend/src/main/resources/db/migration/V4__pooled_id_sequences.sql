@@ -0,0 +1,7 @@
+-- Post, Comment, Report and User ids come from pooled sequence generators with allocationSize 50:
+-- Hibernate takes one nextval as the top of a block of 50 ids. Column defaults keep using the
+-- same sequences, so native inserts stay compatible (they just consume a whole block).
+ALTER SEQUENCE _user_id_seq INCREMENT BY 50;
+ALTER SEQUENCE posts_id_seq INCREMENT BY 50;
+ALTER SEQUENCE comments_id_seq INCREMENT BY 50;
+ALTER SEQUENCE reports_id_seq INCREMENT BY 50;
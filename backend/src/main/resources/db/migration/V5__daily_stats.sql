@@ -0,0 +1,19 @@
+-- Per-day creation rollup behind the admin activity chart (PlatformStats checkpoints into it).
+CREATE TABLE daily_stats (
+    day             date PRIMARY KEY,
+    posts_created   bigint DEFAULT 0 NOT NULL,
+    users_created   bigint DEFAULT 0 NOT NULL,
+    reports_created bigint DEFAULT 0 NOT NULL
+);
+
+INSERT INTO daily_stats (day, posts_created, users_created, reports_created)
+SELECT d.day,
+       coalesce(p.cnt, 0),
+       coalesce(u.cnt, 0),
+       coalesce(r.cnt, 0)
+FROM (SELECT created_at::date AS day FROM posts
+      UNION SELECT created_at::date FROM _user WHERE created_at IS NOT NULL
+      UNION SELECT created_at::date FROM reports) d
+LEFT JOIN (SELECT created_at::date AS day, count(*) AS cnt FROM posts GROUP BY 1) p ON p.day = d.day
+LEFT JOIN (SELECT created_at::date AS day, count(*) AS cnt FROM _user GROUP BY 1) u ON u.day = d.day
+LEFT JOIN (SELECT created_at::date AS day, count(*) AS cnt FROM reports GROUP BY 1) r ON r.day = d.day;
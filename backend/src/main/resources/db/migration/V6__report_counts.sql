@@ -0,0 +1,19 @@
+-- Per-target report counts behind the "most reported" lists (ReportCountTracker). Rows go away
+-- with their user or post; the count indexes make the top-K read a short index scan.
+CREATE TABLE user_report_counts (
+    user_id      integer PRIMARY KEY REFERENCES _user (id) ON DELETE CASCADE,
+    report_count bigint NOT NULL
+);
+CREATE INDEX idx_user_report_counts_count ON user_report_counts (report_count DESC, user_id);
+
+CREATE TABLE post_report_counts (
+    post_id      bigint PRIMARY KEY REFERENCES posts (id) ON DELETE CASCADE,
+    report_count bigint NOT NULL
+);
+CREATE INDEX idx_post_report_counts_count ON post_report_counts (report_count DESC, post_id);
+
+INSERT INTO user_report_counts (user_id, report_count)
+SELECT reported_user_id, count(*) FROM reports WHERE reported_user_id IS NOT NULL GROUP BY reported_user_id;
+
+INSERT INTO post_report_counts (post_id, report_count)
+SELECT reported_post_id, count(*) FROM reports WHERE reported_post_id IS NOT NULL GROUP BY reported_post_id;
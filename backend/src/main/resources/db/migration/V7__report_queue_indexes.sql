@@ -0,0 +1,6 @@
+-- Moderation queue: keyset on (created_at, id) newest first, with or without a status filter.
+-- The id column makes the tie-breaker part of the index; the older (status, created_at) index
+-- is superseded.
+CREATE INDEX IF NOT EXISTS idx_reports_created ON reports (created_at, id);
+CREATE INDEX IF NOT EXISTS idx_reports_status_created_id ON reports (status, created_at, id);
+DROP INDEX IF EXISTS idx_reports_status_created;
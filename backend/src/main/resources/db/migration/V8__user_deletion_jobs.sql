@@ -0,0 +1,20 @@
+-- Background user deletion (UserDeletionWorker). user_id has no foreign key: the job row
+-- outlives the user it deletes and is the record of that deletion.
+CREATE TABLE user_deletion_jobs (
+    id               bigserial PRIMARY KEY,
+    user_id          integer NOT NULL,
+    requested_by     integer,
+    phase            varchar(16) NOT NULL,
+    comments_deleted bigint NOT NULL DEFAULT 0,
+    posts_deleted    bigint NOT NULL DEFAULT 0,
+    attempts         integer NOT NULL DEFAULT 0,
+    last_error       varchar(500),
+    created_at       timestamp NOT NULL,
+    updated_at       timestamp NOT NULL,
+    completed_at     timestamp
+);
+
+-- At most one unfinished job per user.
+CREATE UNIQUE INDEX idx_user_deletion_jobs_active ON user_deletion_jobs (user_id) WHERE phase <> 'DONE';
+-- The worker's claim: oldest unfinished job first.
+CREATE INDEX idx_user_deletion_jobs_pending ON user_deletion_jobs (id) WHERE phase <> 'DONE';
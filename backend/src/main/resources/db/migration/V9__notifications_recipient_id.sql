@@ -0,0 +1,3 @@
+-- Mark-all-read takes the recipient's own highest notification id as the read watermark and
+-- counts the unread rows between the old and new watermark; both walk this index.
+CREATE INDEX IF NOT EXISTS idx_notifications_recipient_id ON notifications (recipient_id, id);
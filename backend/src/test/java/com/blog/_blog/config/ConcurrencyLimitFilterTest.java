@@ -0,0 +1,179 @@
+package com.blog._blog.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConcurrencyLimitFilterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(5);
+
+    @Test
+    void shedsRequestsBeyondTheLimitWith503() throws Exception {
+        ConcurrencyLimitFilter filter = filterWithLimitOfOne(true);
+        MockHttpServletResponse shed = new MockHttpServletResponse();
+
+        MockHttpServletResponse first = run(filter, get("/api/posts"),
+                (request, response) -> run(filter, get("/api/posts/7"), shed));
+
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(shed.getStatus()).isEqualTo(503);
+        assertThat(shed.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(shed.getContentAsString()).contains("Server is busy");
+        assertThat(filter.snapshot().get("feed")).containsEntry("rejected", 1L).containsEntry("inflight", 0);
+    }
+
+    @Test
+    void limitsEachGroupSeparately() throws Exception {
+        ConcurrencyLimitFilter filter = filterWithLimitOfOne(true);
+        MockHttpServletResponse search = new MockHttpServletResponse();
+        MockHttpServletResponse dashboard = new MockHttpServletResponse();
+
+        run(filter, get("/api/posts"), (request, response) -> {
+            run(filter, get("/api/search"), search);
+            run(filter, get("/api/dashboard/stats"), dashboard);
+        });
+
+        assertThat(search.getStatus()).isEqualTo(200);
+        assertThat(dashboard.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void leavesWritesAndOtherPathsAlone() throws Exception {
+        ConcurrencyLimitFilter filter = filterWithLimitOfOne(true);
+        MockHttpServletResponse write = new MockHttpServletResponse();
+        MockHttpServletResponse other = new MockHttpServletResponse();
+
+        run(filter, get("/api/posts"), (request, response) -> {
+            run(filter, new MockHttpServletRequest("POST", "/api/posts"), write);
+            run(filter, get("/api/users/me"), other);
+        });
+
+        assertThat(write.getStatus()).isEqualTo(200);
+        assertThat(other.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void countsUploadsOfAnyMethodAsOneGroup() throws Exception {
+        ConcurrencyLimitFilter filter = filterWithLimitOfOne(true);
+        MockHttpServletResponse shed = new MockHttpServletResponse();
+
+        run(filter, new MockHttpServletRequest("POST", "/api/posts/upload"),
+                (request, response) -> run(filter, get("/uploads/a.png"), shed));
+
+        assertThat(shed.getStatus()).isEqualTo(503);
+    }
+
+    @Test
+    void shedsNothingWhenDisabled() throws Exception {
+        ConcurrencyLimitFilter filter = filterWithLimitOfOne(false);
+        MockHttpServletResponse nested = new MockHttpServletResponse();
+
+        run(filter, get("/api/posts"), (request, response) -> run(filter, get("/api/posts"), nested));
+
+        assertThat(nested.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void releasesTheSlotWhenTheRequestFails() throws Exception {
+        ConcurrencyLimitFilter filter = filterWithLimitOfOne(true);
+
+        assertThatThrownBy(() -> run(filter, get("/api/posts"), (request, response) -> {
+            throw new ServletException("boom");
+        })).isInstanceOf(ServletException.class);
+
+        assertThat(run(filter, get("/api/posts"), (request, response) -> { }).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void cutsTheLimitOnASlowRequestButNotBelowTheMinimum() {
+        ConcurrencyLimitFilter.Limiter limiter = new ConcurrencyLimitFilter.Limiter(100, 80, 200, 0);
+
+        limiter.release(SLOW, limiter.tryAcquire());
+        assertThat(limiter.getLimit()).isEqualTo(90);
+
+        limiter.release(SLOW, limiter.tryAcquire());
+        limiter.release(SLOW, limiter.tryAcquire());
+        assertThat(limiter.getLimit()).isEqualTo(80);
+    }
+
+    @Test
+    void cutsAtMostOncePerTargetInterval() {
+        ConcurrencyLimitFilter.Limiter limiter = new ConcurrencyLimitFilter.Limiter(100, 4, 200, 60_000);
+
+        limiter.release(SLOW, limiter.tryAcquire());
+
+        assertThat(limiter.getLimit()).isEqualTo(100);
+    }
+
+    @Test
+    void growsByAboutOnePerLimitsWorthOfFastRequestsWhileBusy() {
+        ConcurrencyLimitFilter.Limiter limiter = new ConcurrencyLimitFilter.Limiter(10, 4, 200, 1000);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.release(FAST, 10);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(10);
+
+        limiter.release(FAST, 10);
+        assertThat(limiter.getLimit()).isEqualTo(11);
+    }
+
+    @Test
+    void doesNotGrowWhileMostlyIdleOrPastTheMaximum() {
+        ConcurrencyLimitFilter.Limiter idle = new ConcurrencyLimitFilter.Limiter(10, 4, 200, 1000);
+        ConcurrencyLimitFilter.Limiter capped = new ConcurrencyLimitFilter.Limiter(200, 4, 200, 1000);
+
+        for (int i = 0; i < 50; i++) {
+            idle.release(FAST, 1);
+            capped.release(FAST, 200);
+        }
+
+        assertThat(idle.getLimit()).isEqualTo(10);
+        assertThat(capped.getLimit()).isEqualTo(200);
+    }
+
+    @Test
+    void reportsEveryGroupInTheSnapshot() {
+        Map<String, Map<String, Object>> snapshot = new ConcurrencyLimitFilter(new MockEnvironment()).snapshot();
+
+        assertThat(snapshot).containsOnlyKeys("feed", "search", "dashboard", "uploads");
+        assertThat(snapshot.get("feed")).containsEntry("limit", 20).containsEntry("targetLatencyMs", 300L);
+        assertThat(snapshot.get("uploads")).containsEntry("targetLatencyMs", 2000L);
+    }
+
+    private static ConcurrencyLimitFilter filterWithLimitOfOne(boolean enabled) {
+        return new ConcurrencyLimitFilter(new MockEnvironment()
+                .withProperty("app.concurrency-limit.enabled", String.valueOf(enabled))
+                .withProperty("app.concurrency-limit.initial-limit", "1")
+                .withProperty("app.concurrency-limit.min-limit", "1")
+                .withProperty("app.concurrency-limit.max-limit", "1"));
+    }
+
+    private static MockHttpServletRequest get(String path) {
+        return new MockHttpServletRequest("GET", path);
+    }
+
+    private static MockHttpServletResponse run(ConcurrencyLimitFilter filter, MockHttpServletRequest request,
+            FilterChain chain) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static void run(ConcurrencyLimitFilter filter, MockHttpServletRequest request,
+            MockHttpServletResponse response) throws ServletException, IOException {
+        filter.doFilter(request, response, (req, res) -> { });
+    }
+}
@@ -0,0 +1,134 @@
+package com.blog._blog.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterInterceptorTest {
+
+    private final RateLimiterInterceptor interceptor = new RateLimiterInterceptor();
+
+    @Test
+    void neverLimitsReads() throws Exception {
+        for (int i = 0; i < 500; i++) {
+            assertThat(send("GET", "/api/posts", "10.0.0.1").getStatus()).isEqualTo(200);
+        }
+    }
+
+    @Test
+    void neverLimitsLogout() throws Exception {
+        for (int i = 0; i < 500; i++) {
+            assertThat(send("POST", "/api/auth/logout", "10.0.0.1").getStatus()).isEqualTo(200);
+        }
+    }
+
+    @Test
+    void rejectsWritesPastTheLimitWithRetryAfter() throws Exception {
+        for (int i = 0; i < 180; i++) {
+            assertThat(send("POST", "/api/posts", "10.0.0.1").getStatus()).isEqualTo(200);
+        }
+
+        MockHttpServletResponse rejected = send("POST", "/api/posts", "10.0.0.1");
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getContentType()).isEqualTo("application/json");
+        assertThat(Long.parseLong(rejected.getHeader("Retry-After"))).isPositive();
+        assertThat(rejected.getContentAsString()).contains("Too many requests");
+    }
+
+    @Test
+    void appliesTheTighterLimitToLoginAndRegistration() throws Exception {
+        for (int i = 0; i < 45; i++) {
+            assertThat(send("POST", "/api/auth/authenticate", "10.0.0.1").getStatus()).isEqualTo(200);
+        }
+
+        assertThat(send("POST", "/api/auth/authenticate", "10.0.0.1").getStatus()).isEqualTo(429);
+        assertThat(send("POST", "/api/auth/register", "10.0.0.1").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void keepsSeparateBucketsPerClientAndMethod() throws Exception {
+        exhaust("POST", "/api/posts", "10.0.0.1");
+
+        assertThat(send("POST", "/api/posts", "10.0.0.1").getStatus()).isEqualTo(429);
+        assertThat(send("POST", "/api/posts", "10.0.0.2").getStatus()).isEqualTo(200);
+        assertThat(send("DELETE", "/api/posts", "10.0.0.1").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void sharesABucketAcrossPathsWithTheSameThreeSegments() throws Exception {
+        exhaust("POST", "/api/posts/42/like", "10.0.0.1");
+
+        assertThat(send("post", "/api/posts/42/comments", "10.0.0.1").getStatus()).isEqualTo(429);
+        assertThat(send("POST", "/api/posts/43/like", "10.0.0.1").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void identifiesTheClientByTheFirstForwardedAddress() throws Exception {
+        for (int i = 0; i < 180; i++) {
+            MockHttpServletRequest request = request("POST", "/api/posts", "192.168.0.10");
+            request.addHeader("X-Forwarded-For", "203.0.113.5, 192.168.0." + i);
+            interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        }
+
+        MockHttpServletRequest sameClient = request("POST", "/api/posts", "192.168.0.99");
+        sameClient.addHeader("X-Forwarded-For", "203.0.113.5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(interceptor.preHandle(sameClient, response, null)).isFalse();
+        assertThat(response.getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void bucketRefillsContinuouslyAtItsPerMinuteRate() {
+        RateLimiterInterceptor.TokenBucket bucket = new RateLimiterInterceptor.TokenBucket(60, 0);
+        for (int i = 0; i < 60; i++) {
+            assertThat(bucket.tryAcquire(0)).isZero();
+        }
+
+        assertThat(bucket.tryAcquire(0)).isEqualTo(1000);
+        assertThat(bucket.tryAcquire(500)).isEqualTo(500);
+        assertThat(bucket.tryAcquire(1000)).isZero();
+        assertThat(bucket.lastRefill()).isEqualTo(1000);
+    }
+
+    @Test
+    void bucketNeverHoldsMoreThanItsCapacity() {
+        RateLimiterInterceptor.TokenBucket bucket = new RateLimiterInterceptor.TokenBucket(2, 0);
+
+        assertThat(bucket.tryAcquire(3_600_000)).isZero();
+        assertThat(bucket.tryAcquire(3_600_000)).isZero();
+        assertThat(bucket.tryAcquire(3_600_000)).isPositive();
+    }
+
+    @Test
+    void bucketKeysCompareClientMethodAndPathPrefix() {
+        RateLimiterInterceptor.BucketKey key = new RateLimiterInterceptor.BucketKey("10.0.0.1", "POST", "/api/posts/42/like");
+
+        assertThat(key).isEqualTo(new RateLimiterInterceptor.BucketKey("10.0.0.1", "post", "/api/posts/42/comments"))
+                .hasSameHashCodeAs(new RateLimiterInterceptor.BucketKey("10.0.0.1", "post", "/api/posts/42/comments"));
+        assertThat(key).isNotEqualTo(new RateLimiterInterceptor.BucketKey("10.0.0.2", "POST", "/api/posts/42/like"));
+        assertThat(key).isNotEqualTo(new RateLimiterInterceptor.BucketKey("10.0.0.1", "PUT", "/api/posts/42/like"));
+        assertThat(key).isNotEqualTo(new RateLimiterInterceptor.BucketKey("10.0.0.1", "POST", "/api/posts/421"));
+    }
+
+    private void exhaust(String method, String path, String client) throws Exception {
+        for (int i = 0; i < 180; i++) {
+            send(method, path, client);
+        }
+    }
+
+    private MockHttpServletResponse send(String method, String path, String client) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request(method, path, client), response, null);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String path, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(client);
+        return request;
+    }
+}
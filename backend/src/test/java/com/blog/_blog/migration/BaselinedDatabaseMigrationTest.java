@@ -0,0 +1,87 @@
+package com.blog._blog.migration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A database created by the former {@code ddl-auto=update}, with data and no Flyway history:
+ * it is baselined at V1, everything from V1_1 on is applied over the existing rows and Hibernate
+ * validates the result while the context starts.
+ */
+@SpringBootTest
+class BaselinedDatabaseMigrationTest {
+
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    static {
+        POSTGRES.start();
+        try (Connection connection = DriverManager.getConnection(POSTGRES.getJdbcUrl(),
+                POSTGRES.getUsername(), POSTGRES.getPassword())) {
+            // V1 is that schema as ddl-auto left it; data.sql is the seed data it used to run with.
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/migration/V1__baseline_schema.sql"));
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("data.sql"));
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("INSERT INTO notifications (recipient_id, actor_id, type, entity_id, is_read, created_at) "
+                        + "SELECT r.id, a.id, 'FOLLOW', NULL, false, now() - interval '40 days' "
+                        + "FROM user_following f JOIN _user r ON r.id = f.following_id JOIN _user a ON a.id = f.user_id");
+            }
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Could not create the pre-migration schema", ex);
+        }
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void baselinesAtV1AndAppliesTheRest() {
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM flyway_schema_history WHERE NOT success", Integer.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT type FROM flyway_schema_history WHERE version = '1'", String.class)).isEqualTo("BASELINE");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM flyway_schema_history WHERE version = '1.1'", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void backfillsTheCountersFromExistingRows() {
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM posts p WHERE p.like_count <> "
+                        + "(SELECT COUNT(*) FROM post_likes l WHERE l.post_id = p.id)", Integer.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM posts p WHERE p.comment_count <> "
+                        + "(SELECT COUNT(*) FROM comments c WHERE c.post_id = p.id)", Integer.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM _user u WHERE u.followers_count <> "
+                        + "(SELECT COUNT(*) FROM user_following f WHERE f.following_id = u.id)", Integer.class)).isZero();
+    }
+
+    @Test
+    void keepsExistingNotificationsInThePartitionedTable() {
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT relkind::text FROM pg_class WHERE relname = 'notifications'", String.class)).isEqualTo("p");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notifications", Integer.class))
+                .isEqualTo(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_following", Integer.class));
+    }
+}
@@ -0,0 +1,58 @@
+package com.blog._blog.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FeedCursorTest {
+
+    @Test
+    void parsesWhatItEncodes() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 5, 14, 7, 9, 123_456_000);
+
+        FeedCursor cursor = FeedCursor.parse(FeedCursor.encode(createdAt, 42L));
+
+        assertThat(cursor.getCreatedAt()).isEqualTo(createdAt);
+        assertThat(cursor.getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void encodesAsIsoTimestampAndId() {
+        assertThat(FeedCursor.encode(LocalDateTime.of(2024, 3, 5, 14, 7, 9), 7L)).isEqualTo("2024-03-05T14:07:09,7");
+    }
+
+    @Test
+    void encodesNothingWithoutBothParts() {
+        assertThat(FeedCursor.encode(null, 7L)).isNull();
+        assertThat(FeedCursor.encode(LocalDateTime.now(), null)).isNull();
+    }
+
+    @Test
+    void toleratesSpacesAroundTheParts() {
+        FeedCursor cursor = FeedCursor.parse(" 2024-03-05T14:07:09 , 7 ");
+
+        assertThat(cursor.getCreatedAt()).isEqualTo(LocalDateTime.of(2024, 3, 5, 14, 7, 9));
+        assertThat(cursor.getId()).isEqualTo(7L);
+    }
+
+    @Test
+    void treatsAMissingCursorAsTheFirstPage() {
+        assertThat(FeedCursor.parse(null)).isNull();
+        assertThat(FeedCursor.parse("")).isNull();
+        assertThat(FeedCursor.parse("   ")).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "2024-03-05T14:07:09", ",7", "2024-03-05T14:07:09,", "yesterday,7",
+            "2024-03-05T14:07:09,seven", "2024-03-05T14:07:09,7,8" })
+    void rejectsMalformedCursors(String value) {
+        assertThatThrownBy(() -> FeedCursor.parse(value))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+}
@@ -90,6 +90,8 @@ export interface Notification {
     type: 'LIKE' | 'COMMENT' | 'FOLLOW' | 'SYSTEM' | 'NEW_POST';
     entityId: number;
     isRead: boolean;
+    actorCount?: number; // Distinct actors in an aggregated notification
+    sampleActorIds?: number[];
     createdAt: string;
     message: string;
 }
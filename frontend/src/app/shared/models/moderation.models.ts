@@ -30,6 +30,15 @@ export interface ReportedUser {
     status: string;
 }
 
+export interface ReportedPost {
+    id: number;
+    title: string;
+    authorId: number;
+    authorName: string;
+    reportCount: number;
+    hidden: boolean;
+}
+
 export interface DashboardStats {
     totalUsers: number;
     totalPosts: number;
@@ -38,4 +47,5 @@ export interface DashboardStats {
     pendingReports: number;
     activity: PlatformActivity[];
     mostReportedUsers: ReportedUser[];
+    mostReportedPosts?: ReportedPost[];
 }